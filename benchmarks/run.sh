@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+#
+# Run the JMH benchmarks and write the results as JSON so that they can be compared
+# across Quarkus and fabric8 upgrades. Additional arguments are passed to JMH,
+# e.g. ./run.sh ManifestRoundTripBenchmark -p manifest=/argocd-2.14.yaml
+#
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+QUARKUS_VERSION=$(sed -n 's:.*<quarkus.platform.version>\(.*\)</quarkus.platform.version>.*:\1:p' pom.xml)
+RESULTS=target/jmh-result-quarkus-${QUARKUS_VERSION}-$(date +%Y%m%d-%H%M%S).json
+
+../mvnw -B -q -f ../pom.xml install -DskipTests
+../mvnw -B -q package
+
+java -jar target/benchmarks.jar -prof gc -rf json -rff "${RESULTS}" "$@"
+echo "Results written to ${RESULTS}"
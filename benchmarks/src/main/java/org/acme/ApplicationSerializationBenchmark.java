@@ -0,0 +1,76 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+  Serialization of an Application as returned by the API server, i.e. with managedFields,
+  with and without the trimming of the tests (see KubernetesClients and TrimmingProfile).
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApplicationSerializationBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean trimming;
+
+    private KubernetesSerialization serialization;
+    private Application application;
+    private String json;
+
+    @Setup
+    public void setup() {
+        // The managedFields are always written so that both variants read the same payload
+        var writer = Serializations.create(false);
+        Application app = writer.unmarshal(new String(Serializations.resource("/test1-app.yaml")), Application.class);
+        for (String manager : new String[] { "argocd-server", "argocd-application-controller", "kubectl-client-side-apply" }) {
+            app.getMetadata().getManagedFields().add(new ManagedFieldsEntryBuilder()
+                .withManager(manager)
+                .withOperation("Update")
+                .withApiVersion("argoproj.io/v1alpha1")
+                .withFieldsType("FieldsV1")
+                .withNewFieldsV1()
+                  .addToAdditionalProperties("f:status", Map.of("f:health", Map.of(), "f:sync", Map.of(), "f:resources", Map.of()))
+                .endFieldsV1()
+                .build());
+        }
+        json = writer.asJson(app);
+
+        serialization = Serializations.create(trimming);
+        application = serialization.unmarshal(json, Application.class);
+    }
+
+    @Benchmark
+    public Application jsonRead() {
+        return serialization.unmarshal(json, Application.class);
+    }
+
+    @Benchmark
+    public String jsonWrite() {
+        return serialization.asJson(application);
+    }
+
+    @Benchmark
+    public String asYaml() {
+        return serialization.asYaml(application);
+    }
+}
@@ -0,0 +1,81 @@
+package org.acme;
+
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.acme.ArgocdResourceGenerator.ApplicationParams;
+import static org.acme.ArgocdResourceGenerator.ResourceTemplate;
+
+/*
+  Compare the cost of generating one Application with the builder path (populateApplication)
+  and with the batch API. Run it with -prof gc to get the allocation rate per operation.
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArgocdResourceGeneratorBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private Config config;
+    private ResourceTemplate template;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        config = new Config();
+        config.setProjectName("bench");
+        config.setApplicationName("bench-0");
+        config.setApplicationNamespace("bench");
+        config.setGitRevision("master");
+        template = ResourceTemplate.of(config);
+    }
+
+    @Benchmark
+    public Application builderPath() {
+        config.setApplicationName("bench-" + counter++);
+        return ArgocdResourceGenerator.populateApplication(config);
+    }
+
+    @Benchmark
+    public Application batchPath() {
+        return ArgocdResourceGenerator.populateApplications(template,
+            Stream.of(new ApplicationParams("bench-" + counter++, "bench", "master", "helm-guestbook")))
+            .findFirst().orElseThrow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void builderPathBatch(Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            config.setApplicationName("bench-" + i);
+            blackhole.consume(ArgocdResourceGenerator.populateApplication(config));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void batchPathBatch(Blackhole blackhole) {
+        ArgocdResourceGenerator.populateApplications(template,
+                IntStream.range(0, BATCH_SIZE).mapToObj(i -> new ApplicationParams("bench-" + i, "bench", "master", "helm-guestbook")))
+            .forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,78 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+  YAML and JSON round trips of the full ArgoCD manifests (CRDs included).
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ManifestRoundTripBenchmark {
+
+    @Param({ "/argocd-2.13.yml", "/argocd-2.14.yaml" })
+    public String manifest;
+
+    @Param({ "true", "false" })
+    public boolean trimming;
+
+    private KubernetesSerialization serialization;
+    private byte[] yaml;
+    private List<HasMetadata> items;
+    private List<String> json;
+
+    @Setup
+    public void setup() {
+        serialization = Serializations.create(trimming);
+        yaml = Serializations.resource(manifest);
+        items = load();
+        json = items.stream().map(serialization::asJson).collect(Collectors.toList());
+    }
+
+    private List<HasMetadata> load() {
+        try (var stream = StreamingManifestLoader.load(serialization, new ByteArrayInputStream(yaml))) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public List<HasMetadata> yamlRead() {
+        return load();
+    }
+
+    @Benchmark
+    public void yamlWrite(Blackhole blackhole) {
+        items.forEach(item -> blackhole.consume(serialization.asYaml(item)));
+    }
+
+    @Benchmark
+    public void jsonRead(Blackhole blackhole) {
+        json.forEach(doc -> blackhole.consume(serialization.<HasMetadata> unmarshal(doc)));
+    }
+
+    @Benchmark
+    public void jsonWrite(Blackhole blackhole) {
+        items.forEach(item -> blackhole.consume(serialization.asJson(item)));
+    }
+}
@@ -0,0 +1,35 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+final class Serializations {
+
+    private Serializations() {
+    }
+
+    // Nothing dropped, as a plain KubernetesSerialization
+    static final TrimmingProfile UNTRIMMED = TrimmingProfile.builder()
+        .dropManagedFields(false)
+        .dropLastAppliedConfiguration(false)
+        .build();
+
+    // Built as the clients of the tests (see KubernetesClients), with their default TrimmingProfile when trimming
+    static KubernetesSerialization create(boolean trimming) {
+        return KubernetesClients.serialization(trimming ? TrimmingProfile.DEFAULT : UNTRIMMED);
+    }
+
+    static byte[] resource(String name) {
+        try (InputStream in = Serializations.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Resource not found: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
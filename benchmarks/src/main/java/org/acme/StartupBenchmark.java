@@ -0,0 +1,298 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+  Startup and footprint benchmark of the Quarkus service for every packaging which can be
+  built on this machine:
+
+  - fast-jar:  the default packaging (Dockerfile.jvm),
+  - uber-jar:  a single runner jar (close to Dockerfile.legacy-jar),
+  - appcds:    fast-jar with the AppCDS archive generated by Quarkus at build time,
+  - aot-cache: fast-jar with a JDK AOT cache (JEP 483, Leyden) created by a training run, JDK 24+ only,
+  - native:    native executable (Dockerfile.native), only when GraalVM (native-image) is available.
+
+  For each packaging the application is built, started several times to measure the time to the
+  first successful /hello response, then loaded with StatusApiLoadTest to measure the throughput
+  and the RSS after the warm-up. The results are written under benchmarks/target as JSON and markdown.
+
+  java -cp target/benchmarks.jar org.acme.StartupBenchmark [project dir] [packagings] [startups] [load seconds] [clients]
+  e.g. java -cp target/benchmarks.jar org.acme.StartupBenchmark .. fast-jar,appcds 5 20 32
+*/
+public class StartupBenchmark {
+
+    private static final int PORT = 18080;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    // The status API informers need a cluster: they are disabled as only the service footprint is measured
+    private static final List<String> APPLICATION_PROPERTIES = List.of(
+        "-Dquarkus.http.port=" + PORT,
+        "-Dargocd.status.informer.enabled=false");
+
+    public enum Packaging {
+        FAST_JAR("fast-jar"),
+        UBER_JAR("uber-jar"),
+        APPCDS("appcds"),
+        AOT_CACHE("aot-cache"),
+        NATIVE("native");
+
+        final String id;
+
+        Packaging(String id) {
+            this.id = id;
+        }
+
+        static Packaging of(String id) {
+            return Arrays.stream(values()).filter(p -> p.id.equals(id)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown packaging " + id));
+        }
+
+        boolean isAvailable() {
+            return switch (this) {
+                case AOT_CACHE -> Runtime.version().feature() >= 24;
+                case NATIVE -> System.getenv("GRAALVM_HOME") != null || onPath("native-image");
+                default -> true;
+            };
+        }
+
+        List<String> buildArguments() {
+            return switch (this) {
+                case FAST_JAR, AOT_CACHE -> List.of("-Dquarkus.package.jar.type=fast-jar");
+                case UBER_JAR -> List.of("-Dquarkus.package.jar.type=uber-jar");
+                case APPCDS -> List.of("-Dquarkus.package.jar.type=fast-jar", "-Dquarkus.package.jar.appcds.enabled=true");
+                case NATIVE -> List.of("-Dnative");
+            };
+        }
+    }
+
+    public record Measurement(String packaging, List<Long> startupMillis, long rssKb, StatusApiLoadTest.Result load) {
+        long medianStartupMillis() {
+            List<Long> sorted = startupMillis.stream().sorted().toList();
+            return sorted.get(sorted.size() / 2);
+        }
+
+        long minStartupMillis() {
+            return startupMillis.stream().mapToLong(Long::longValue).min().orElse(0);
+        }
+    }
+
+    private final Path project;
+    private final int startups;
+    private final Duration load;
+    private final int clients;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    public StartupBenchmark(Path project, int startups, Duration load, int clients) {
+        this.project = project;
+        this.startups = startups;
+        this.load = load;
+        this.clients = clients;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path project = Path.of(args.length > 0 ? args[0] : "..").toAbsolutePath().normalize();
+        List<Packaging> packagings = args.length > 1
+            ? Arrays.stream(args[1].split(",")).map(Packaging::of).toList()
+            : Arrays.asList(Packaging.values());
+        int startups = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        Duration load = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 20);
+        int clients = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+
+        var benchmark = new StartupBenchmark(project, startups, load, clients);
+        List<Measurement> measurements = new ArrayList<>();
+        for (Packaging packaging : packagings) {
+            if (!packaging.isAvailable()) {
+                System.out.println("Skipping " + packaging.id + ": not available with this JDK/toolchain");
+                continue;
+            }
+            measurements.add(benchmark.measure(packaging));
+        }
+        benchmark.write(measurements);
+    }
+
+    public Measurement measure(Packaging packaging) throws Exception {
+        System.out.println("Building " + packaging.id);
+        build(packaging);
+        List<String> command = command(packaging);
+        if (packaging == Packaging.AOT_CACHE) {
+            train(command);
+        }
+
+        List<Long> startupMillis = new ArrayList<>();
+        for (int i = 0; i < startups - 1; i++) {
+            Process process = start(command);
+            startupMillis.add(awaitFirstResponse(process));
+            stop(process);
+        }
+
+        // Last startup: the application is warmed up and loaded before its footprint is read
+        Process process = start(command);
+        try {
+            startupMillis.add(awaitFirstResponse(process));
+            URI hello = URI.create("http://localhost:" + PORT + "/hello");
+            StatusApiLoadTest.run(hello, clients, Duration.ofSeconds(5), false);
+            long rssKb = rssKb(process.pid());
+            StatusApiLoadTest.Result result = StatusApiLoadTest.run(hello, clients, load, false);
+            Measurement measurement = new Measurement(packaging.id, startupMillis, rssKb, result);
+            System.out.printf("%s: startup median=%d ms min=%d ms, rss=%d MB, %s%n", packaging.id,
+                measurement.medianStartupMillis(), measurement.minStartupMillis(), rssKb / 1024, result);
+            return measurement;
+        } finally {
+            stop(process);
+        }
+    }
+
+    private void build(Packaging packaging) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(project.resolve("mvnw").toString(), "-B", "-q", "clean", "package", "-DskipTests"));
+        command.addAll(packaging.buildArguments());
+        Process process = new ProcessBuilder(command).directory(project.toFile()).inheritIO().start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Build of " + packaging.id + " failed: " + command);
+        }
+    }
+
+    private List<String> command(Packaging packaging) throws IOException {
+        Path target = project.resolve("target");
+        Path quarkusApp = target.resolve("quarkus-app");
+        List<String> command = new ArrayList<>();
+        switch (packaging) {
+            case FAST_JAR -> command.addAll(List.of(java(), "-jar", quarkusApp.resolve("quarkus-run.jar").toString()));
+            case UBER_JAR -> command.addAll(List.of(java(), "-jar", runner(target, "-runner.jar").toString()));
+            case APPCDS -> command.addAll(List.of(java(), "-XX:SharedArchiveFile=" + quarkusApp.resolve("app-cds.jsa"),
+                "-jar", quarkusApp.resolve("quarkus-run.jar").toString()));
+            case AOT_CACHE -> command.addAll(List.of(java(), "-XX:AOTCache=" + quarkusApp.resolve("app.aot"),
+                "-jar", quarkusApp.resolve("quarkus-run.jar").toString()));
+            case NATIVE -> command.add(runner(target, "-runner").toString());
+        }
+        // The system properties must come before -jar for the JVM modes, the native executable accepts them anywhere
+        command.addAll(1, APPLICATION_PROPERTIES);
+        return command;
+    }
+
+    // Record the classes loaded and linked while serving requests, then create the AOT cache from them
+    private void train(List<String> command) throws Exception {
+        Path quarkusApp = project.resolve("target").resolve("quarkus-app");
+        String configuration = quarkusApp.resolve("app.aotconf").toString();
+        List<String> record = command.stream()
+            .map(arg -> arg.startsWith("-XX:AOTCache=") ? "-XX:AOTConfiguration=" + configuration : arg)
+            .collect(Collectors.toCollection(ArrayList::new));
+        record.add(1, "-XX:AOTMode=record");
+        Process process = start(record);
+        awaitFirstResponse(process);
+        StatusApiLoadTest.run(URI.create("http://localhost:" + PORT + "/hello"), clients, Duration.ofSeconds(5), false);
+        stop(process);
+
+        List<String> create = new ArrayList<>(List.of(java(), "-XX:AOTMode=create", "-XX:AOTConfiguration=" + configuration,
+            "-XX:AOTCache=" + quarkusApp.resolve("app.aot"), "-jar", quarkusApp.resolve("quarkus-run.jar").toString()));
+        if (new ProcessBuilder(create).inheritIO().start().waitFor() != 0) {
+            throw new IllegalStateException("Unable to create the AOT cache: " + create);
+        }
+    }
+
+    private Process start(List<String> command) throws IOException {
+        return new ProcessBuilder(command).directory(project.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+    }
+
+    // Time from the process start to the first 200 of /hello, as seen by a client polling every 5 ms
+    private long awaitFirstResponse(Process process) throws InterruptedException {
+        long start = process.info().startInstant().map(i -> i.toEpochMilli()).orElse(System.currentTimeMillis());
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/hello")).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with " + process.exitValue());
+            }
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return System.currentTimeMillis() - start;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No response from /hello after " + STARTUP_TIMEOUT);
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    // VmRSS of /proc/<pid>/status on Linux, ps elsewhere
+    static long rssKb(long pid) throws IOException, InterruptedException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (Files.exists(status)) {
+            try (Stream<String> lines = Files.lines(status)) {
+                return lines.filter(l -> l.startsWith("VmRSS:"))
+                    .map(l -> l.replaceAll("[^0-9]", ""))
+                    .mapToLong(Long::parseLong)
+                    .findFirst().orElse(-1);
+            }
+        }
+        Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", Long.toString(pid)).start();
+        String rss = new String(ps.getInputStream().readAllBytes()).trim();
+        ps.waitFor();
+        return rss.isEmpty() ? -1 : Long.parseLong(rss);
+    }
+
+    private void write(List<Measurement> measurements) throws IOException {
+        Path target = Path.of("target");
+        Files.createDirectories(target);
+        String name = "startup-report-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(target.resolve(name + ".json").toFile(), measurements);
+
+        StringBuilder markdown = new StringBuilder()
+            .append("JDK ").append(Runtime.version()).append(", ").append(startups).append(" startups, ")
+            .append(clients).append(" clients for ").append(load.toSeconds()).append("s\n\n")
+            .append("| Packaging | Startup median (ms) | Startup min (ms) | RSS (MB) | Throughput (req/s) | p99 (ms) |\n")
+            .append("|-----------|---------------------|------------------|----------|--------------------|----------|\n");
+        for (Measurement m : measurements) {
+            markdown.append(String.format("| %s | %d | %d | %d | %.0f | %.2f |%n", m.packaging(), m.medianStartupMillis(),
+                m.minStartupMillis(), m.rssKb() / 1024, m.load().throughput(), m.load().p99Millis()));
+        }
+        Files.writeString(target.resolve(name + ".md"), markdown);
+        System.out.println(markdown);
+        System.out.println("Report written to " + target.resolve(name + ".json") + " and .md");
+    }
+
+    private static Path runner(Path target, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(target)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(suffix)).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No *" + suffix + " in " + target));
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static boolean onPath(String executable) {
+        return Stream.of(System.getenv().getOrDefault("PATH", "").split(File.pathSeparator))
+            .anyMatch(dir -> Files.isExecutable(Path.of(dir, executable)));
+    }
+}
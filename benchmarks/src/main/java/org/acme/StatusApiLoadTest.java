@@ -0,0 +1,99 @@
+package org.acme;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+  Closed-loop load test of an HTTP endpoint, e.g. the /applications status API:
+
+  java -cp target/benchmarks.jar org.acme.StatusApiLoadTest http://localhost:8080/applications 64 30 true
+
+  Arguments: url, number of concurrent clients, duration in seconds and whether the clients
+  poll with If-None-Match like a dashboard does. Prints the throughput and the latency percentiles.
+*/
+public class StatusApiLoadTest {
+
+    public record Result(long requests, long errors, double throughput, double p50Millis, double p99Millis, double maxMillis) {
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms",
+                requests, errors, throughput, p50Millis, p99Millis, maxMillis);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8080/applications";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        boolean conditional = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        // Warm up the server before measuring
+        run(URI.create(url), clients, Duration.ofSeconds(5), conditional);
+        System.out.println(url + " (" + clients + " clients, conditional=" + conditional + "): " + run(URI.create(url), clients, duration, conditional));
+    }
+
+    public static Result run(URI uri, int clients, Duration duration, boolean conditional) throws Exception {
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<long[]> latencies = new ArrayList<>();
+        try (ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(httpExecutor).build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    String etag = null;
+                    while (System.nanoTime() < deadline) {
+                        var request = HttpRequest.newBuilder(uri).GET();
+                        if (conditional && etag != null) {
+                            request.header("If-None-Match", etag);
+                        }
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                            etag = response.headers().firstValue("ETag").orElse(etag);
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            for (Future<long[]> future : futures) {
+                latencies.add(future.get());
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            return new Result(0, errors.sum(), 0, 0, 0, 0);
+        }
+        return new Result(all.length, errors.sum(), all.length / (double) duration.toSeconds(),
+            percentile(all, 50), percentile(all, 99), all[all.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(sorted.length * percentile / 100.0) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
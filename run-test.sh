@@ -5,5 +5,16 @@ export TESTCONTAINERS_RYUK_DISABLED=true
 # export TESTCONTAINERS_DOCKER_SOCKET_OVERRIDE=$(podman machine inspect --format '{{.ConnectionInfo.PodmanSocket.Path}}')
 
 export ARGOCD_RESOURCE_TIMEOUT=180
+# Kind cluster lifecycle: fresh (default), reused or pooled (requires testcontainers.reuse.enable=true)
+# export KIND_CLUSTER_MODE=pooled
+# Sync the Applications from a git server deployed in the cluster instead of GitHub
+# export ARGOCD_OFFLINE=true
+# Images of argocd loaded in the Kind node from a local cache (default: false, cache: ~/.cache/kind-images)
+# export KIND_IMAGE_PRELOAD=true
+# Application controller shards (legacy, round-robin or consistent-hashing)
+# export ARGOCD_CONTROLLER_SHARDS=3
+# export ARGOCD_CONTROLLER_SHARDING_ALGORITHM=round-robin
+# Flavor of the cluster for the tests needing workloads: kind (default) or k3s
+# export CLUSTER_WORKLOADS_FLAVOR=k3s
 
 mvn clean test
\ No newline at end of file
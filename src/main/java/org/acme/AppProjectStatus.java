@@ -0,0 +1,4 @@
+package org.acme;
+
+public record AppProjectStatus(String namespace, String name, int applications, int healthy, int synced) {
+}
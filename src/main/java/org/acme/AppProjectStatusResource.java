@@ -0,0 +1,33 @@
+package org.acme;
+
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+// AppProjects with the health and sync counts of their Applications, see ApplicationStatusResource
+@Path("/appprojects")
+@NonBlocking
+public class AppProjectStatusResource {
+
+    @Inject
+    ApplicationStatusStore store;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response list(@Context Request request) {
+        var snapshot = store.projects();
+        EntityTag etag = new EntityTag(Long.toString(snapshot.version()));
+        var notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(snapshot.items()).tag(etag).build();
+    }
+}
@@ -0,0 +1,23 @@
+package org.acme;
+
+import io.quarkiverse.argocd.v1alpha1.Application;
+
+import java.util.Optional;
+
+public record ApplicationStatus(String namespace, String name, String project, String health, String sync, String operationPhase) {
+
+    public static ApplicationStatus of(Application application) {
+        var status = Optional.ofNullable(application.getStatus());
+        return new ApplicationStatus(
+            application.getMetadata().getNamespace(),
+            application.getMetadata().getName(),
+            application.getSpec() != null ? application.getSpec().getProject() : null,
+            status.map(s -> s.getHealth()).map(h -> h.getStatus()).orElse(null),
+            status.map(s -> s.getSync()).map(s -> s.getStatus()).orElse(null),
+            status.map(s -> s.getOperationState()).map(o -> o.getPhase()).orElse(null));
+    }
+
+    public String key() {
+        return namespace + "/" + name;
+    }
+}
@@ -0,0 +1,75 @@
+package org.acme;
+
+import io.smallrye.common.annotation.NonBlocking;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.util.stream.Collectors;
+
+/*
+  Status of the Argocd Applications served from the in-memory ApplicationStatusStore.
+  The responses carry the version of the store as ETag, so that pollers sending
+  If-None-Match get a 304 as long as nothing changed.
+*/
+@Path("/applications")
+@NonBlocking
+public class ApplicationStatusResource {
+
+    @Inject
+    ApplicationStatusStore store;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response list(@QueryParam("namespace") String namespace, @QueryParam("project") String project, @Context Request request) {
+        var snapshot = store.applications();
+        EntityTag etag = new EntityTag(Long.toString(snapshot.version()));
+        var notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        var items = snapshot.items();
+        if (namespace != null || project != null) {
+            items = items.stream()
+                .filter(a -> namespace == null || namespace.equals(a.namespace()))
+                .filter(a -> project == null || project.equals(a.project()))
+                .collect(Collectors.toList());
+        }
+        return Response.ok(items).tag(etag).build();
+    }
+
+    @GET
+    @Path("/{namespace}/{name}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response get(@PathParam("namespace") String namespace, @PathParam("name") String name, @Context Request request) {
+        var status = store.versioned(namespace, name);
+        if (status == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        // Version of the store when the Application last changed: unlike a hash, it never repeats
+        EntityTag etag = new EntityTag(Long.toString(status.version()));
+        var notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(status.item()).tag(etag).build();
+    }
+
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<StatusTransition> stream() {
+        return store.transitions();
+    }
+}
@@ -0,0 +1,195 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.quarkiverse.argocd.v1alpha1.AppProject;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*
+  In-memory snapshot of the Argocd Applications and AppProjects of the cluster, fed by informers,
+  so that the REST resources never call the API server. Every change increments the version
+  used as ETag, and the status transitions are broadcast to the SSE subscribers. Every
+  Application also keeps the version of its last change, the ETag of its own resource.
+*/
+@ApplicationScoped
+public class ApplicationStatusStore {
+    private static final Logger LOG = Logger.getLogger(ApplicationStatusStore.class);
+
+    public record Snapshot<T>(long version, List<T> items) {
+    }
+
+    public record Versioned<T>(long version, T item) {
+    }
+
+    @ConfigProperty(name = "argocd.status.informer.enabled", defaultValue = "true")
+    boolean informerEnabled;
+
+    @Inject
+    Instance<KubernetesClient> client;
+
+    private final Map<String, Versioned<ApplicationStatus>> applications = new ConcurrentHashMap<>();
+    private final Map<String, String> projects = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final BroadcastProcessor<StatusTransition> transitions = BroadcastProcessor.create();
+    private final List<SharedIndexInformer<?>> informers = new ArrayList<>();
+
+    private volatile Snapshot<ApplicationStatus> applicationSnapshot = new Snapshot<>(0, List.of());
+    private volatile Snapshot<AppProjectStatus> projectSnapshot = new Snapshot<>(0, List.of());
+
+    void onStart(@Observes StartupEvent event) {
+        if (!informerEnabled) {
+            return;
+        }
+        try {
+            var kubernetesClient = client.get();
+            informers.add(kubernetesClient.resources(Application.class).inAnyNamespace().inform(new ResourceEventHandler<>() {
+                @Override
+                public void onAdd(Application application) {
+                    update(application);
+                }
+
+                @Override
+                public void onUpdate(Application oldApplication, Application newApplication) {
+                    update(newApplication);
+                }
+
+                @Override
+                public void onDelete(Application application, boolean deletedFinalStateUnknown) {
+                    remove(application.getMetadata().getNamespace(), application.getMetadata().getName());
+                }
+            }));
+            informers.add(kubernetesClient.resources(AppProject.class).inAnyNamespace().inform(new ResourceEventHandler<>() {
+                @Override
+                public void onAdd(AppProject project) {
+                    updateProject(project.getMetadata().getNamespace(), project.getMetadata().getName());
+                }
+
+                @Override
+                public void onUpdate(AppProject oldProject, AppProject newProject) {
+                }
+
+                @Override
+                public void onDelete(AppProject project, boolean deletedFinalStateUnknown) {
+                    removeProject(project.getMetadata().getNamespace(), project.getMetadata().getName());
+                }
+            }));
+            LOG.infof("Watching %d Argocd applications", applications.size());
+        } catch (Exception e) {
+            LOG.warn("Unable to watch the Argocd applications, the status API will stay empty", e);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        informers.forEach(SharedIndexInformer::close);
+        transitions.onComplete();
+    }
+
+    public void update(Application application) {
+        ApplicationStatus current = ApplicationStatus.of(application);
+        ApplicationStatus[] previous = new ApplicationStatus[1];
+        boolean[] changed = new boolean[1];
+        applications.compute(current.key(), (key, entry) -> {
+            previous[0] = entry != null ? entry.item() : null;
+            changed[0] = !Objects.equals(previous[0], current);
+            return changed[0] ? new Versioned<>(version.incrementAndGet(), current) : entry;
+        });
+        if (changed[0]) {
+            transitions.onNext(new StatusTransition(Instant.now(), previous[0], current));
+        }
+    }
+
+    public void remove(String namespace, String name) {
+        Versioned<ApplicationStatus> previous = applications.remove(namespace + "/" + name);
+        if (previous != null) {
+            version.incrementAndGet();
+            transitions.onNext(new StatusTransition(Instant.now(), previous.item(), null));
+        }
+    }
+
+    public void updateProject(String namespace, String name) {
+        if (projects.put(namespace + "/" + name, name) == null) {
+            version.incrementAndGet();
+        }
+    }
+
+    public void removeProject(String namespace, String name) {
+        if (projects.remove(namespace + "/" + name) != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public ApplicationStatus get(String namespace, String name) {
+        Versioned<ApplicationStatus> entry = applications.get(namespace + "/" + name);
+        return entry != null ? entry.item() : null;
+    }
+
+    // The status of the Application with the version of the store when it last changed
+    public Versioned<ApplicationStatus> versioned(String namespace, String name) {
+        return applications.get(namespace + "/" + name);
+    }
+
+    // The sorted lists are only rebuilt when the version changed since the previous call
+    public Snapshot<ApplicationStatus> applications() {
+        Snapshot<ApplicationStatus> snapshot = applicationSnapshot;
+        long current = version.get();
+        if (snapshot.version() != current) {
+            snapshot = new Snapshot<>(current, applications.values().stream()
+                .map(Versioned::item)
+                .sorted(Comparator.comparing(ApplicationStatus::key))
+                .collect(Collectors.toUnmodifiableList()));
+            applicationSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    public Snapshot<AppProjectStatus> projects() {
+        Snapshot<AppProjectStatus> snapshot = projectSnapshot;
+        long current = version.get();
+        if (snapshot.version() != current) {
+            Map<String, List<ApplicationStatus>> byProject = applications.values().stream()
+                .map(Versioned::item)
+                .filter(a -> a.project() != null)
+                .collect(Collectors.groupingBy(ApplicationStatus::project));
+            snapshot = new Snapshot<>(current, projects.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> {
+                    List<ApplicationStatus> apps = byProject.getOrDefault(e.getValue(), List.of());
+                    return new AppProjectStatus(e.getKey().substring(0, e.getKey().indexOf('/')), e.getValue(), apps.size(),
+                        (int) apps.stream().filter(a -> "Healthy".equals(a.health())).count(),
+                        (int) apps.stream().filter(a -> "Synced".equals(a.sync())).count());
+                })
+                .collect(Collectors.toUnmodifiableList()));
+            projectSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    public Multi<StatusTransition> transitions() {
+        return transitions;
+    }
+}
@@ -0,0 +1,8 @@
+package org.acme;
+
+import java.time.Instant;
+
+// Change of the health, sync or operation phase of an Application.
+// previous is null when the Application is created and current is null when it is deleted
+public record StatusTransition(Instant at, ApplicationStatus previous, ApplicationStatus current) {
+}
@@ -0,0 +1,69 @@
+package org.acme;
+
+import io.quarkiverse.argocd.v1alpha1.Application;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/*
+  Null-safe, composable conditions on the status of an Argocd Application.
+  e.g. healthy().and(synced())
+*/
+public interface ApplicationCondition extends Predicate<Application> {
+
+    String description();
+
+    static ApplicationCondition of(String description, Predicate<Application> predicate) {
+        return new ApplicationCondition() {
+            @Override
+            public String description() {
+                return description;
+            }
+
+            @Override
+            public boolean test(Application application) {
+                return application != null && predicate.test(application);
+            }
+        };
+    }
+
+    default ApplicationCondition and(ApplicationCondition other) {
+        return of(description() + " and " + other.description(), a -> test(a) && other.test(a));
+    }
+
+    default ApplicationCondition or(ApplicationCondition other) {
+        return of(description() + " or " + other.description(), a -> test(a) || other.test(a));
+    }
+
+    static ApplicationCondition healthStatus(String status) {
+        return of("health " + status, a -> status.equals(healthOf(a)));
+    }
+
+    static ApplicationCondition syncStatus(String status) {
+        return of("sync " + status, a -> status.equals(syncOf(a)));
+    }
+
+    static ApplicationCondition operationPhase(String phase) {
+        return of("operation " + phase, a -> phase.equals(operationPhaseOf(a)));
+    }
+
+    static ApplicationCondition healthy() {
+        return healthStatus("Healthy");
+    }
+
+    static ApplicationCondition synced() {
+        return syncStatus("Synced");
+    }
+
+    static String healthOf(Application a) {
+        return Optional.ofNullable(a.getStatus()).map(s -> s.getHealth()).map(h -> h.getStatus()).orElse(null);
+    }
+
+    static String syncOf(Application a) {
+        return Optional.ofNullable(a.getStatus()).map(s -> s.getSync()).map(s -> s.getStatus()).orElse(null);
+    }
+
+    static String operationPhaseOf(Application a) {
+        return Optional.ofNullable(a.getStatus()).map(s -> s.getOperationState()).map(o -> o.getPhase()).orElse(null);
+    }
+}
@@ -0,0 +1,62 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.junit.jupiter.api.Test;
+
+import static org.acme.ApplicationCondition.healthy;
+import static org.acme.ApplicationCondition.operationPhase;
+import static org.acme.ApplicationCondition.synced;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApplicationConditionTest {
+
+    private static final KubernetesSerialization SERIALIZATION = new KubernetesSerialization();
+
+    private static Application application(String health, String sync) {
+        return SERIALIZATION.unmarshal("""
+            apiVersion: argoproj.io/v1alpha1
+            kind: Application
+            metadata:
+              name: test-1
+              namespace: argocd
+            status:
+              health:
+                status: %s
+              sync:
+                status: %s
+            """.formatted(health, sync), Application.class);
+    }
+
+    @Test
+    public void healthy_and_synced_match_the_status() {
+        assertTrue(healthy().test(application("Healthy", "OutOfSync")));
+        assertFalse(healthy().test(application("Progressing", "Synced")));
+        assertTrue(synced().test(application("Progressing", "Synced")));
+        assertFalse(synced().test(application("Healthy", "OutOfSync")));
+
+        var ready = healthy().and(synced());
+        assertEquals("health Healthy and sync Synced", ready.description());
+        assertTrue(ready.test(application("Healthy", "Synced")));
+        assertFalse(ready.test(application("Healthy", "OutOfSync")));
+        assertTrue(healthy().or(synced()).test(application("Degraded", "Synced")));
+    }
+
+    @Test
+    public void missing_status_never_matches() {
+        var noStatus = SERIALIZATION.unmarshal("""
+            apiVersion: argoproj.io/v1alpha1
+            kind: Application
+            metadata:
+              name: test-1
+              namespace: argocd
+            """, Application.class);
+
+        assertFalse(healthy().test(noStatus));
+        assertFalse(synced().test(noStatus));
+        assertFalse(operationPhase("Succeeded").test(application("Healthy", "Synced")));
+        assertFalse(healthy().test(null));
+    }
+}
@@ -0,0 +1,166 @@
+package org.acme;
+
+import io.quarkiverse.argocd.v1alpha1.Application;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.acme.ApplicationCondition.healthOf;
+import static org.acme.ApplicationCondition.operationPhaseOf;
+import static org.acme.ApplicationCondition.syncOf;
+
+/*
+  Bounded history of the health, sync and operation phase transitions of the Applications,
+  fed by the events of an existing informer (see ApplicationStatusCache). It is rendered when
+  a wait times out instead of fetching and dumping the Application, so the diagnostics cost
+  no API call and show how the Application got to its final state.
+
+  Every Application keeps its last transitions in a ring buffer and Applications are evicted above
+  the maximum number tracked, so the memory used is bounded by maxApplications * maxTransitions
+  compact records. The settled Applications (Healthy and Synced, or deleted) are evicted first, so
+  that the history of the stuck ones, the ones a timed out wait renders, is kept under load.
+*/
+public class ApplicationHistory {
+
+    public static final int DEFAULT_MAX_APPLICATIONS = 512;
+    public static final int DEFAULT_MAX_TRANSITIONS = 32;
+    // Longer operation messages (e.g. the output of a failed helm template) are truncated
+    static final int MAX_MESSAGE_LENGTH = 160;
+
+    public record Transition(long epochMillis, String health, String sync, String operationPhase, String message) {
+        boolean sameStatus(Transition other) {
+            return other != null && Objects.equals(health, other.health) && Objects.equals(sync, other.sync)
+                && Objects.equals(operationPhase, other.operationPhase);
+        }
+
+        @Override
+        public String toString() {
+            return Instant.ofEpochMilli(epochMillis) + " health=" + health + " sync=" + sync + " operation=" + operationPhase
+                + (message != null ? " message=" + message : "");
+        }
+    }
+
+    private static final class Ring {
+        private final Transition[] transitions;
+        private int next;
+        private int size;
+        private long dropped;
+
+        private Ring(int capacity) {
+            this.transitions = new Transition[capacity];
+        }
+
+        private Transition last() {
+            return size == 0 ? null : transitions[(next - 1 + transitions.length) % transitions.length];
+        }
+
+        private void add(Transition transition) {
+            if (size == transitions.length) {
+                dropped++;
+            } else {
+                size++;
+            }
+            transitions[next] = transition;
+            next = (next + 1) % transitions.length;
+        }
+
+        private List<Transition> list() {
+            List<Transition> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(transitions[(next - size + i + transitions.length) % transitions.length]);
+            }
+            return list;
+        }
+    }
+
+    private final int maxApplications;
+    private final int maxTransitions;
+    // Ordered by last update (see add)
+    private final Map<String, Ring> rings = new LinkedHashMap<>();
+    // Applications whose last status is settled, ordered by the time they settled
+    private final Set<String> settled = new LinkedHashSet<>();
+
+    public ApplicationHistory() {
+        this(DEFAULT_MAX_APPLICATIONS, DEFAULT_MAX_TRANSITIONS);
+    }
+
+    public ApplicationHistory(int maxApplications, int maxTransitions) {
+        this.maxApplications = maxApplications;
+        this.maxTransitions = maxTransitions;
+    }
+
+    // Record the status of the Application if it differs from the last one recorded
+    public void record(String key, Application application) {
+        String message = Optional.ofNullable(application.getStatus())
+            .map(s -> s.getOperationState())
+            .map(o -> o.getMessage())
+            .map(m -> m.length() > MAX_MESSAGE_LENGTH ? m.substring(0, MAX_MESSAGE_LENGTH) + "..." : m)
+            .orElse(null);
+        add(key, new Transition(System.currentTimeMillis(), healthOf(application), syncOf(application), operationPhaseOf(application), message));
+    }
+
+    public void recordDeletion(String key) {
+        add(key, new Transition(System.currentTimeMillis(), null, null, null, "deleted"));
+    }
+
+    public synchronized List<Transition> transitions(String key) {
+        Ring ring = rings.get(key);
+        return ring == null ? List.of() : ring.list();
+    }
+
+    public synchronized int size() {
+        return rings.size();
+    }
+
+    public String render(String key) {
+        List<Transition> transitions;
+        long dropped;
+        synchronized (this) {
+            Ring ring = rings.get(key);
+            if (ring == null) {
+                return "No status recorded for the Application " + key;
+            }
+            transitions = ring.list();
+            dropped = ring.dropped;
+        }
+        StringBuilder sb = new StringBuilder("Status history of the Application ").append(key);
+        if (dropped > 0) {
+            sb.append(" (").append(dropped).append(" older transitions dropped)");
+        }
+        transitions.forEach(t -> sb.append("\n  ").append(t));
+        return sb.toString();
+    }
+
+    private synchronized void add(String key, Transition transition) {
+        Ring ring = rings.remove(key);
+        if (ring == null) {
+            ring = new Ring(maxTransitions);
+        }
+        rings.put(key, ring);
+        if (!transition.sameStatus(ring.last()) || !Objects.equals(transition.message(), ring.last().message())) {
+            ring.add(transition);
+        }
+        settled.remove(key);
+        if (isSettled(transition)) {
+            settled.add(key);
+        }
+        if (rings.size() > maxApplications) {
+            // The first settled Application, else the one not updated for the longest time
+            String evicted = settled.isEmpty() ? rings.keySet().iterator().next() : settled.iterator().next();
+            rings.remove(evicted);
+            settled.remove(evicted);
+        }
+    }
+
+    private static boolean isSettled(Transition transition) {
+        return "deleted".equals(transition.message())
+            || ("Healthy".equals(transition.health()) && "Synced".equals(transition.sync()));
+    }
+}
@@ -0,0 +1,78 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApplicationHistoryTest {
+
+    private static final KubernetesSerialization SERIALIZATION = new KubernetesSerialization();
+
+    private static Application application(String health, String sync) {
+        return SERIALIZATION.unmarshal("""
+            apiVersion: argoproj.io/v1alpha1
+            kind: Application
+            metadata:
+              name: test-1
+              namespace: argocd
+            status:
+              health:
+                status: %s
+              sync:
+                status: %s
+            """.formatted(health, sync), Application.class);
+    }
+
+    @Test
+    public void only_status_changes_are_recorded() {
+        var history = new ApplicationHistory();
+        history.record("argocd/test-1", application("Missing", "OutOfSync"));
+        history.record("argocd/test-1", application("Missing", "OutOfSync"));
+        history.record("argocd/test-1", application("Progressing", "Synced"));
+        history.record("argocd/test-1", application("Healthy", "Synced"));
+        history.recordDeletion("argocd/test-1");
+
+        List<ApplicationHistory.Transition> transitions = history.transitions("argocd/test-1");
+        assertEquals(List.of("Missing", "Progressing", "Healthy"), transitions.subList(0, 3).stream().map(ApplicationHistory.Transition::health).toList());
+        assertEquals("deleted", transitions.get(3).message());
+        assertTrue(history.render("argocd/test-1").contains("health=Healthy sync=Synced"));
+    }
+
+    @Test
+    public void memory_is_bounded() {
+        var history = new ApplicationHistory(2, 3);
+        for (int i = 0; i < 10; i++) {
+            history.record("argocd/test-1", application("Progressing", "Synced-" + i));
+        }
+        assertEquals(List.of("Synced-7", "Synced-8", "Synced-9"),
+            history.transitions("argocd/test-1").stream().map(ApplicationHistory.Transition::sync).toList());
+        assertTrue(history.render("argocd/test-1").contains("7 older transitions dropped"));
+
+        // test-2 is the least recently updated when test-3 is recorded
+        history.record("argocd/test-2", application("Healthy", "Synced"));
+        history.record("argocd/test-1", application("Healthy", "Synced"));
+        history.record("argocd/test-3", application("Healthy", "Synced"));
+        assertEquals(2, history.size());
+        assertEquals(List.of(), history.transitions("argocd/test-2"));
+        assertEquals(3, history.transitions("argocd/test-1").size());
+    }
+
+    @Test
+    public void settled_applications_are_evicted_before_the_stuck_ones() {
+        var history = new ApplicationHistory(2, 3);
+        history.record("argocd/stuck", application("Progressing", "OutOfSync"));
+        history.record("argocd/test-1", application("Healthy", "Synced"));
+        history.record("argocd/test-2", application("Healthy", "Synced"));
+        history.record("argocd/test-3", application("Progressing", "Synced"));
+
+        assertEquals(2, history.size());
+        assertEquals(1, history.transitions("argocd/stuck").size());
+        assertEquals(List.of(), history.transitions("argocd/test-1"));
+        assertEquals(List.of(), history.transitions("argocd/test-2"));
+    }
+}
@@ -0,0 +1,146 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/*
+  Cache of the Argocd Applications of all the namespaces fed by one shared informer.
+  Any number of callers can wait on a condition of an Application: the waits are
+  evaluated when the informer receives an event for that Application, so no watch
+  is opened per Application or per condition. The status transitions received are
+  kept in a bounded ApplicationHistory to diagnose the waits which time out.
+*/
+public class ApplicationStatusCache implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationStatusCache.class);
+
+    public static final String NAME_INDEX = "name";
+    public static final String PROJECT_INDEX = "project";
+
+    private record Waiter(ApplicationCondition condition, CompletableFuture<Application> future) {
+    }
+
+    private final SharedIndexInformer<Application> informer;
+    private final Map<String, List<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final ApplicationHistory history = new ApplicationHistory();
+
+    public ApplicationStatusCache(KubernetesClient client) {
+        informer = client.resources(Application.class).inAnyNamespace().runnableInformer(0);
+        informer.addIndexers(Map.of(
+            NAME_INDEX, a -> List.of(a.getMetadata().getName()),
+            PROJECT_INDEX, a -> a.getSpec() != null && a.getSpec().getProject() != null ? List.of(a.getSpec().getProject()) : List.of()));
+        informer.addEventHandler(new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(Application application) {
+                history.record(Cache.metaNamespaceKeyFunc(application), application);
+                evaluate(application);
+            }
+
+            @Override
+            public void onUpdate(Application oldApplication, Application newApplication) {
+                history.record(Cache.metaNamespaceKeyFunc(newApplication), newApplication);
+                evaluate(newApplication);
+            }
+
+            @Override
+            public void onDelete(Application application, boolean deletedFinalStateUnknown) {
+                history.recordDeletion(Cache.metaNamespaceKeyFunc(application));
+            }
+        });
+        informer.start().toCompletableFuture().join();
+        LOG.info("Application cache synced with {} applications", informer.getStore().list().size());
+    }
+
+    public Application get(String namespace, String name) {
+        return informer.getStore().getByKey(Cache.namespaceKeyFunc(namespace, name));
+    }
+
+    public List<Application> byName(String name) {
+        return informer.getIndexer().byIndex(NAME_INDEX, name);
+    }
+
+    public List<Application> byProject(String project) {
+        return informer.getIndexer().byIndex(PROJECT_INDEX, project);
+    }
+
+    public List<Application> list() {
+        return informer.getStore().list();
+    }
+
+    public ApplicationHistory history() {
+        return history;
+    }
+
+    // Status transitions of the Application received so far, rendered without calling the API server
+    public String describe(String namespace, String name) {
+        return history.render(Cache.namespaceKeyFunc(namespace, name));
+    }
+
+    /*
+      Returns a future completed with the Application as soon as it satisfies the condition.
+      Callers are expected to bound the wait, see await(namespace, name, condition, timeout, unit),
+      or to cancel the future: the waiter stays registered until its future is completed.
+    */
+    public CompletableFuture<Application> await(String namespace, String name, ApplicationCondition condition) {
+        String key = Cache.namespaceKeyFunc(namespace, name);
+        Waiter waiter = new Waiter(condition, new CompletableFuture<>());
+        Timeline.Span span = Timeline.span("application", key + " " + condition.description());
+        waiter.future().whenComplete((a, e) -> span.outcome(e == null ? "met" : e.getClass().getSimpleName()).close());
+        // Added within the atomic compute so that the removal of the last waiter of the key can't drop the list concurrently
+        waiters.compute(key, (k, list) -> {
+            List<Waiter> pending = list != null ? list : new CopyOnWriteArrayList<>();
+            pending.add(waiter);
+            return pending;
+        });
+        waiter.future().whenComplete((a, e) -> waiters.computeIfPresent(key, (k, list) -> {
+            list.remove(waiter);
+            return list.isEmpty() ? null : list;
+        }));
+        // The application may already be in the expected state
+        evaluate(key, get(namespace, name));
+        return waiter.future();
+    }
+
+    // Same as above, the future is completed with a TimeoutException and the waiter removed when the timeout expires
+    public CompletableFuture<Application> await(String namespace, String name, ApplicationCondition condition, long timeout, TimeUnit unit) {
+        return await(namespace, name, condition).orTimeout(timeout, unit);
+    }
+
+    // Number of waiters still registered, completed waiters are removed
+    int pendingWaiters() {
+        return waiters.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void evaluate(Application application) {
+        evaluate(Cache.metaNamespaceKeyFunc(application), application);
+    }
+
+    private void evaluate(String key, Application application) {
+        List<Waiter> pending = waiters.get(key);
+        if (pending == null || application == null) {
+            return;
+        }
+        for (Waiter waiter : pending) {
+            if (waiter.condition().test(application)) {
+                waiter.future().complete(application);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        informer.close();
+        waiters.values().forEach(list -> list.forEach(w -> w.future().cancel(false)));
+    }
+}
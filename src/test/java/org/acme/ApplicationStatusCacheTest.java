@@ -0,0 +1,91 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.acme.ApplicationCondition.healthy;
+import static org.acme.ApplicationCondition.synced;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+public class ApplicationStatusCacheTest {
+
+    static KubernetesClient mockClient;
+
+    private static final KubernetesSerialization SERIALIZATION = new KubernetesSerialization();
+
+    private static Application create(String name, String health, String sync) {
+        Application application = SERIALIZATION.unmarshal("""
+            apiVersion: argoproj.io/v1alpha1
+            kind: Application
+            metadata:
+              name: %s
+              namespace: argocd
+            status:
+              health:
+                status: %s
+              sync:
+                status: %s
+            """.formatted(name, health, sync), Application.class);
+        // Set the status through its subresource, the crud mock server may drop it on create
+        var applications = mockClient.resources(Application.class).inNamespace("argocd");
+        applications.resource(application).create();
+        return applications.resource(application).updateStatus();
+    }
+
+    @Test
+    public void waiters_complete_immediately_when_the_cached_state_matches() {
+        create("cached-1", "Healthy", "OutOfSync");
+
+        try (var cache = new ApplicationStatusCache(mockClient)) {
+            CompletableFuture<Application> future = cache.await("argocd", "cached-1", healthy());
+
+            assertTrue(future.isDone());
+            assertEquals("cached-1", future.join().getMetadata().getName());
+            assertEquals(0, cache.pendingWaiters());
+        }
+    }
+
+    @Test
+    public void waiters_are_removed_on_timeout() {
+        create("cached-2", "Healthy", "OutOfSync");
+
+        try (var cache = new ApplicationStatusCache(mockClient)) {
+            CompletableFuture<Application> future = cache.await("argocd", "cached-2", synced(), 100, TimeUnit.MILLISECONDS);
+            assertEquals(1, cache.pendingWaiters());
+
+            var e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            await().atMost(Duration.ofSeconds(5)).until(() -> cache.pendingWaiters() == 0);
+        }
+    }
+
+    @Test
+    public void waiters_are_removed_on_cancel() {
+        create("cached-3", "Progressing", "Synced");
+
+        try (var cache = new ApplicationStatusCache(mockClient)) {
+            CompletableFuture<Application> first = cache.await("argocd", "cached-3", healthy());
+            CompletableFuture<Application> second = cache.await("argocd", "cached-3", healthy());
+            assertEquals(2, cache.pendingWaiters());
+
+            first.cancel(false);
+            assertEquals(1, cache.pendingWaiters());
+            second.cancel(false);
+            assertEquals(0, cache.pendingWaiters());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class ApplicationStatusResourceTest {
+
+    @Inject
+    ApplicationStatusStore store;
+
+    @TestHTTPResource("/applications/stream")
+    URI streamUri;
+
+    private static Application application(String name, String health, String sync) {
+        return new KubernetesSerialization().unmarshal("""
+            {
+              "apiVersion": "argoproj.io/v1alpha1",
+              "kind": "Application",
+              "metadata": { "name": "%s", "namespace": "argocd" },
+              "spec": { "project": "default" },
+              "status": { "health": { "status": "%s" }, "sync": { "status": "%s" } }
+            }
+            """.formatted(name, health, sync), Application.class);
+    }
+
+    @Test
+    void testApplicationsEndpoint() {
+        store.update(application("status-1", "Progressing", "OutOfSync"));
+        store.update(application("status-1", "Healthy", "Synced"));
+
+        given()
+          .when().get("/applications/argocd/status-1")
+          .then()
+             .statusCode(200)
+             .body("health", is("Healthy"))
+             .body("sync", is("Synced"));
+
+        String etag = given()
+          .when().get("/applications?project=default")
+          .then()
+             .statusCode(200)
+             .body("find { it.name == 'status-1' }.health", is("Healthy"))
+             .extract().header("ETag");
+
+        given()
+          .header("If-None-Match", etag)
+          .when().get("/applications?project=default")
+          .then()
+             .statusCode(304);
+
+        store.remove("argocd", "status-1");
+
+        given()
+          .header("If-None-Match", etag)
+          .when().get("/applications?project=default")
+          .then()
+             .statusCode(200);
+    }
+
+    @Test
+    void testApplicationETagChangesWithTheApplication() {
+        store.update(application("status-2", "Progressing", "OutOfSync"));
+
+        String etag = given()
+          .when().get("/applications/argocd/status-2")
+          .then()
+             .statusCode(200)
+             .extract().header("ETag");
+
+        given()
+          .header("If-None-Match", etag)
+          .when().get("/applications/argocd/status-2")
+          .then()
+             .statusCode(304);
+
+        store.update(application("status-2", "Healthy", "Synced"));
+
+        given()
+          .header("If-None-Match", etag)
+          .when().get("/applications/argocd/status-2")
+          .then()
+             .statusCode(200)
+             .header("ETag", not(etag))
+             .body("health", is("Healthy"));
+    }
+
+    @Test
+    void testAppProjectsEndpoint() {
+        store.updateProject("argocd", "default");
+        store.update(application("status-3", "Healthy", "Synced"));
+
+        given()
+          .when().get("/appprojects")
+          .then()
+             .statusCode(200)
+             .body("find { it.name == 'default' }.namespace", is("argocd"))
+             .body("find { it.name == 'default' }.applications", greaterThanOrEqualTo(1))
+             .body("find { it.name == 'default' }.healthy", greaterThanOrEqualTo(1));
+    }
+
+    @Test
+    void testStatusTransitionsStream() throws Exception {
+        HttpClient http = HttpClient.newHttpClient();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(streamUri).header("Accept", "text/event-stream").build();
+            CompletableFuture<String> firstEvent = http.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenApply(response -> response.body().filter(line -> line.startsWith("data:")).findFirst().orElse(null));
+
+            // The stream only sends the transitions happening after the subscription: change the status till one is received
+            AtomicInteger changes = new AtomicInteger();
+            await().atMost(Duration.ofSeconds(10)).pollInterval(Duration.ofMillis(200)).until(() -> {
+                store.update(application("status-4", changes.incrementAndGet() % 2 == 0 ? "Healthy" : "Progressing", "Synced"));
+                return firstEvent.isDone();
+            });
+
+            String event = firstEvent.get(1, TimeUnit.SECONDS);
+            assertTrue(event.contains("\"name\":\"status-4\""), event);
+        } finally {
+            http.shutdownNow();
+        }
+    }
+}
@@ -1,37 +1,44 @@
 package org.acme;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.dajudge.kindcontainer.KubernetesContainer;
 import io.fabric8.kubernetes.api.model.*;
-import io.fabric8.kubernetes.api.model.apps.Deployment;
-import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import io.fabric8.kubernetes.client.KubernetesClientBuilder;
-import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
 import io.quarkiverse.argocd.v1alpha1.AppProject;
 import io.quarkiverse.argocd.v1alpha1.Application;
 
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static io.fabric8.kubernetes.client.Config.fromKubeconfig;
+import static org.acme.ApplicationCondition.healthy;
+import static org.acme.ApplicationCondition.synced;
 import static org.acme.ArgocdResourceGenerator.populateApplication;
 import static org.acme.ArgocdResourceGenerator.populateProject;
+import static org.acme.ReadinessWaiter.Target.byLabel;
 import static org.junit.Assert.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+@RequiresCluster(ClusterCapability.WORKLOADS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class ArgoCDCITest extends BaseContainer {
     private static final Logger LOG = LoggerFactory.getLogger(ArgoCDCITest.class);
 
     private static final String ARGOCD_NS = "argocd";
 
-    private static final String ARGOCD_APP_CONTROLLER_NAME = "argocd-application-controller";
     private static final String ARGOCD_APPLICATIONSET_CONTROLLER_NAME = "argocd-applicationset-controller";
     private static final String ARGOCD_SERVER_NAME = "argocd-server";
     private static final String ARGOCD_REDIS_NAME = "argocd-redis";
@@ -42,33 +49,47 @@ public class ArgoCDCITest extends BaseContainer {
 
     public static long timeOut = 180;
 
+    // The argocd manifest to install. Can be switched (e.g. /argocd-2.14.yaml) to upgrade an already populated cluster
+    public static String argocdManifest = "/argocd-2.13.yml";
+
+    // Before the cluster is started, so that its start is part of the timeline
+    static {
+        Timeline.enable();
+    }
+
+    static final KubernetesContainer<?> CLUSTER = cluster(ArgoCDCITest.class);
     static KubernetesClient client;
+    static ApplicationStatusCache applications;
+    static KindClusterPool.Snapshot snapshot;
+    static ControllerSharding.Settings sharding = ControllerSharding.Settings.fromEnvironment();
 
     static {
-        var objectMapper = new ObjectMapper();
-        objectMapper.addMixIn(ObjectMeta.class, ObjectMetaMixin.class);
-
-        var kubernetesSerialization = new KubernetesSerialization(objectMapper, true);
-        client = new KubernetesClientBuilder()
-            .withConfig(fromKubeconfig(KIND.getKubeconfig()))
-            .withKubernetesSerialization(kubernetesSerialization)
-            .build();
+        client = KubernetesClients.shared(CLUSTER.getKubeconfig());
     }
 
-    private static void waitTillPodReady(String ns, String name) {
-        client.resources(Pod.class)
-            .inNamespace(ns)
-            .withName(name)
-            .waitUntilReady(timeOut, TimeUnit.SECONDS);
-        LOG.info("Pod: {} ready in {}", name, ns);
+    private static void waitTillPodsReady(String ns, ReadinessWaiter.Target... targets) {
+        try (var waiter = new ReadinessWaiter(client, ns)) {
+            var readyTimes = waiter.await(List.of(targets)).get(timeOut, TimeUnit.SECONDS);
+            LOG.info("Pods ready in {}: {}", ns, readyTimes);
+        } catch (Exception e) {
+            throw new IllegalStateException("Pods of " + ns + " not ready after " + timeOut + "s", e);
+        }
+    }
+
+    private static void waitTillApplication(String ns, String name, ApplicationCondition condition) {
+        try {
+            applications.await(ns, name, condition, 3600, TimeUnit.SECONDS).join();
+            LOG.info("Argocd Application: {} {}", name, condition.description());
+        } catch (Exception e) {
+            throw new IllegalStateException("Argocd Application " + name + " not " + condition.description() + "\n"
+                + applications.describe(ns, name), e);
+        }
     }
 
-    private static void waitTillPodByLabelReady(String ns, String key, String value) {
-        client.resources(Pod.class)
-            .inNamespace(ns)
-            .withLabel(key, value)
-            .waitUntilReady(timeOut, TimeUnit.SECONDS);
-        LOG.info("Pod: {} ready in {}", value, ns);
+    // All the argocd resources are installed except the Argocd Notification and Dex server
+    private static boolean isInstalled(StreamingManifestLoader.Header header) {
+        return !("Deployment".equals(header.kind()) &&
+            (ARGOCD_DEX_SERVER_NAME.equals(header.name()) || ARGOCD_NOTIFICATION_CONTROLLER_NAME.equals(header.name())));
     }
 
     @BeforeAll
@@ -77,92 +98,142 @@ public class ArgoCDCITest extends BaseContainer {
             timeOut = Long.parseLong(System.getenv("ARGOCD_RESOURCE_TIMEOUT"));
             LOG.info("Kubernetes waiting resource - Timeout: {}", timeOut);
         }
-
-        List<HasMetadata> items = client.load(ArgoCDCITest.class.getResourceAsStream("/argocd-2.13.yml")).items();
+        if (System.getenv("ARGOCD_MANIFEST") != null) {
+            argocdManifest = System.getenv("ARGOCD_MANIFEST");
+            LOG.info("Argocd manifest: {}", argocdManifest);
+        }
 
         LOG.info("Creating the argocd namespace");
-        client.namespaces().resource(new NamespaceBuilder().withNewMetadata().withName(ARGOCD_NS).endMetadata().build()).create();
+        client.namespaces().resource(new NamespaceBuilder().withNewMetadata().withName(ARGOCD_NS).endMetadata().build())
+            .fieldManager(ManifestApplier.FIELD_MANAGER)
+            .serverSideApply();
+
+        // Load the images of the workloads in the Kind node, so that the pods don't pull them
+        boolean preload = ImagePreloader.isEnabled();
+        if (preload) {
+            Set<String> images;
+            try (var workloads = StreamingManifestLoader.load(client.getKubernetesSerialization(),
+                ArgoCDCITest.class.getResourceAsStream(argocdManifest),
+                h -> ("Deployment".equals(h.kind()) || "StatefulSet".equals(h.kind())) && isInstalled(h))) {
+                images = ImagePreloader.imagesOf(workloads.collect(Collectors.toList()));
+            }
+            if (LocalGitServer.isOffline()) {
+                images.add(LocalGitServer.IMAGE);
+            }
+            new ImagePreloader(CLUSTER).preload(images).log(LOG);
+        }
 
         // Deploy the different resources: Service, CRD, Deployment, ConfigMap except the Argocd Notification and Dex server
-        List<HasMetadata> filteredItems = items.stream()
-            .filter(r -> !(r instanceof Deployment &&
-                (ARGOCD_DEX_SERVER_NAME.equals(r.getMetadata().getName()) || ARGOCD_NOTIFICATION_CONTROLLER_NAME.equals(r.getMetadata().getName()))))
-            .collect(Collectors.toList());
-        assertEquals(57, filteredItems.size());
-
         LOG.info("Deploying the argocd resources ...");
-        for (HasMetadata item : filteredItems) {
-            var res = client.resource(item).inNamespace("argocd");
-            res.create();
-            assertNotNull(res);
-        };
+        try (var applier = new ManifestApplier(client, ARGOCD_NS).withMode(ManifestApplier.Mode.SERVER_SIDE_APPLY);
+             var items = StreamingManifestLoader.load(client.getKubernetesSerialization(),
+                 ArgoCDCITest.class.getResourceAsStream(argocdManifest), ArgoCDCITest::isInstalled)) {
+            var resources = preload ? items.map(ImagePreloader::ifNotPresent) : items;
+            if (sharding.isEnabled()) {
+                LOG.info("Deploying the application controller with {} shards ({})", sharding.replicas(), sharding.algorithm());
+                resources = resources.map(item -> ControllerSharding.configure(item, sharding));
+            }
+            var report = applier.apply(resources);
+            report.log(LOG);
+            assertEquals(57, report.results().size());
+            assertTrue(report.failures().isEmpty(), "Some argocd resources failed to be applied");
+        }
+
+        // In offline mode the Applications are synced from a git server running next to argocd
+        var targets = new ArrayList<>(List.of(
+            byLabel("app.kubernetes.io/name", ARGOCD_REDIS_NAME),
+            byLabel("app.kubernetes.io/name", ARGOCD_REPO_SERVER_NAME),
+            byLabel("app.kubernetes.io/name", ARGOCD_SERVER_NAME),
+            byLabel("app.kubernetes.io/name", ARGOCD_APPLICATIONSET_CONTROLLER_NAME)
+            //byLabel("app.kubernetes.io/name", ARGOCD_NOTIFICATION_CONTROLLER_NAME),
+            //byLabel("app.kubernetes.io/name", ARGOCD_DEX_SERVER_NAME)
+        ));
+        // One pod per shard: argocd-application-controller-0 .. N-1
+        targets.addAll(ControllerSharding.targets(sharding));
+        if (LocalGitServer.isOffline()) {
+            LocalGitServer.deploy(client, ARGOCD_NS);
+            targets.add(byLabel("app.kubernetes.io/name", LocalGitServer.NAME));
+        }
 
         // Waiting till the pods are ready/running ...
-        waitTillPodByLabelReady(ARGOCD_NS,"app.kubernetes.io/name",ARGOCD_REDIS_NAME);
-        waitTillPodByLabelReady(ARGOCD_NS,"app.kubernetes.io/name",ARGOCD_REPO_SERVER_NAME);
-        waitTillPodByLabelReady(ARGOCD_NS,"app.kubernetes.io/name",ARGOCD_SERVER_NAME);
-        waitTillPodByLabelReady(ARGOCD_NS,"app.kubernetes.io/name",ARGOCD_APPLICATIONSET_CONTROLLER_NAME);
-        waitTillPodReady(ARGOCD_NS, ARGOCD_APP_CONTROLLER_NAME + "-0");
-        //waitTillPodByLabelReady(ARGOCD_NS,"app.kubernetes.io/name",ARGOCD_NOTIFICATION_CONTROLLER_NAME);
-        //waitTillPodByLabelReady(ARGOCD_NS,"app.kubernetes.io/name",ARGOCD_DEX_SERVER_NAME);
+        waitTillPodsReady(ARGOCD_NS, targets.toArray(ReadinessWaiter.Target[]::new));
+
+        applications = new ApplicationStatusCache(client);
+        if (LocalGitServer.isOffline()) {
+            LocalGitServer.prewarm(client, applications, ARGOCD_NS, timeOut, TimeUnit.SECONDS);
+        }
+        snapshot = KindClusterPool.snapshot(client, ARGOCD_NS);
+    }
+
+    @AfterAll
+    public static void closeApplicationCache() {
+        if (applications != null) {
+            applications.close();
+        }
+        if (KindClusterPool.isPooled() && snapshot != null) {
+            KindClusterPool.reset(client, snapshot, timeOut, TimeUnit.SECONDS);
+        }
     }
 
-    /*
-      Use the Default Argocd AppProject
-      Populate an Argocd Application and deploy it under: argocd control's plane
-    */
     @Test
     @Order(1)
-    public void testCaseOne() {
-
-        Config config = new Config();
-        config.setDestinationNamespace("argocd");
-        config.setApplicationName("test-1");
-        config.setApplicationNamespace("argocd");
-        config.setGitRevision("master");
-
-        LOG.info(">>> Running the test case - 1");
-
-        client.resource(populateApplication(config))
-            .inNamespace(ARGOCD_NS)
-            .create();
+    public void runScenarios() {
+        var report = new ScenarioRunner(client, ARGOCD_NS)
+            .scenario("test-1", false, false, ArgoCDCITest::defaultProjectScenario)
+            .scenario("test-2", true, false, ArgoCDCITest::ownProjectScenario)
+            .scenario("test-3", true, true, ArgoCDCITest::applicationInAnyNamespaceScenario)
+            .onApplicationNamespaces(namespaces -> {
+                LOG.info("Patching the Argocd ConfigMap to add the namespaces {} to the property: application.namespaces", namespaces);
+                var rollout = new ConfigChangeRollout(client, ARGOCD_NS)
+                    .apply(ARGOCD_CONFIGMAP_PARAMS_NAME, Map.of("application.namespaces", String.join(",", namespaces)), timeOut, TimeUnit.SECONDS);
+                LOG.info("Argocd components rolled out: {}", rollout.rollouts().keySet());
+            })
+            .tearDownTimeout(timeOut, TimeUnit.SECONDS)
+            .run();
+        report.log(LOG);
+        assertTrue(report.failures().isEmpty(), "Some scenarios failed");
+    }
 
-        LOG.info("Checking when Argocd Application will be Healthy");
-        try {
-            client.resources(Application.class)
-                .inNamespace(ARGOCD_NS)
-                .withName(config.getApplicationName())
-                .waitUntilCondition(a ->
-                    a != null &&
-                        a.getStatus() != null &&
-                        a.getStatus().getHealth() != null &&
-                        a.getStatus().getHealth().getStatus() != null &&
-                        a.getStatus().getHealth().getStatus().equals("Healthy"), 3600, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            LOG.error(client.getKubernetesSerialization().asYaml(client.genericKubernetesResources("argoproj.io/v1alpha1", "Application").inNamespace(ARGOCD_NS).withName(config.getApplicationName()).get()));
+    /*
+      Capacity benchmark, enabled with -Dargocd.load.count=<number of Applications>, e.g.
+      mvn test -Dtest=ArgoCDCITest -Dargocd.load.count=500 -Dargocd.load.rate=5 -Dargocd.offline=true
+      The report is written to target/sync-load-<manifest>-<count>.json to compare the argocd versions.
+    */
+    @Test
+    @Order(2)
+    @EnabledIfSystemProperty(named = "argocd.load.count", matches = "\\d+")
+    public void syncLoad() {
+        var settings = SyncLoadGenerator.Settings.fromEnvironment();
+        var generator = new SyncLoadGenerator(client, applications, ARGOCD_NS);
+        var shards = new ControllerSharding(client, ARGOCD_NS);
+        if (sharding.isEnabled()) {
+            generator.withDestinationServers(shards.createClusterAliases(sharding.replicas(), timeOut, TimeUnit.SECONDS));
         }
-        LOG.info("Argocd Application: {} healthy", config.getApplicationName());
-
-        LOG.info("Checking now when Argocd Application will be synced");
         try {
-        client.resources(Application.class)
-            .inNamespace(ARGOCD_NS)
-            .withName(config.getApplicationName())
-            .waitUntilCondition(a ->
-                a != null &&
-                a.getStatus() != null &&
-                a.getStatus().getSync() != null &&
-                a.getStatus().getSync().getStatus() != null &&
-                a.getStatus().getSync().getStatus().equals("Synced"), 3600, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            LOG.error(client.getKubernetesSerialization().asYaml(client.genericKubernetesResources("argoproj.io/v1alpha1", "Application").inNamespace(ARGOCD_NS).withName(config.getApplicationName()).get()));
+            var report = generator.run(settings);
+            report.log(LOG);
+            if (sharding.isEnabled()) {
+                ControllerSharding.log(LOG, sharding, shards.shardStats());
+            }
+            String manifest = argocdManifest.substring(argocdManifest.lastIndexOf('/') + 1).replaceFirst("\\.ya?ml$", "");
+            report.write(Path.of("target", "sync-load-" + manifest + "-" + settings.count() + ".json"));
+            assertEquals(0, report.createFailures());
+            assertEquals(0, report.timeouts());
+        } finally {
+            generator.cleanup(settings);
         }
-        LOG.info("Argocd Application: {} synced", config.getApplicationName());
+    }
 
-        Application app = client.resources(Application.class)
-            .inNamespace(ARGOCD_NS)
-            .withName(config.getApplicationName()).get();
-        LOG.warn(client.getKubernetesSerialization().asYaml(app));
+    /*
+      Use the Default Argocd AppProject
+      Populate an Argocd Application and deploy it under: argocd control's plane
+    */
+    static void defaultProjectScenario(Config config) {
+        client.resource(populateApplication(config))
+            .inNamespace(config.getApplicationNamespace())
+            .create();
+
+        waitTillApplicationSynced(config);
     }
 
     /*
@@ -170,70 +241,20 @@ public class ArgoCDCITest extends BaseContainer {
       Populate an Argocd Application using the new AppProject and
       deploy it under: argocd control's plane
     */
-    @Test
-    @Order(2)
-    public void testCaseTwo() {
-
-        Config config = new Config();
-        config.setProjectName("test-2");
-        config.setGitUrl("https://github.com/argoproj/argocd-example-apps.git");
-        config.setDestinationNamespace("argocd");
-
-        config.setApplicationName("test-2");
-        config.setApplicationNamespace("argocd");
-
-        config.setGitRevision("master");
-
-        LOG.info(">>> Running the test case - 2");
-
+    static void ownProjectScenario(Config config) {
         client.resource(populateProject(config))
-            .inNamespace(ARGOCD_NS)
+            .inNamespace(config.getProjectNamespace())
             .create();
 
         client.resource(populateApplication(config))
-            .inNamespace(ARGOCD_NS)
+            .inNamespace(config.getApplicationNamespace())
             .create();
 
-        LOG.info("Checking when Argocd Application will be Healthy");
-        try {
-            client.resources(Application.class)
-                .inNamespace(ARGOCD_NS)
-                .withName(config.getApplicationName())
-                .waitUntilCondition(a ->
-                    a != null &&
-                        a.getStatus() != null &&
-                        a.getStatus().getHealth() != null &&
-                        a.getStatus().getHealth().getStatus() != null &&
-                        a.getStatus().getHealth().getStatus().equals("Healthy"), 3600, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            LOG.error(client.getKubernetesSerialization().asYaml(client.genericKubernetesResources("argoproj.io/v1alpha1", "Application").inNamespace(ARGOCD_NS).withName(config.getApplicationName()).get()));
-        }
-        LOG.info("Argocd Application: {} healthy", config.getApplicationName());
-
-        LOG.info("Checking now when Argocd Application will be synced");
-        try {
-            client.resources(Application.class)
-                .inNamespace(ARGOCD_NS)
-                .withName(config.getApplicationName())
-                .waitUntilCondition(a ->
-                    a != null &&
-                        a.getStatus() != null &&
-                        a.getStatus().getSync() != null &&
-                        a.getStatus().getSync().getStatus() != null &&
-                        a.getStatus().getSync().getStatus().equals("Synced"), 3600, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            LOG.error(client.getKubernetesSerialization().asYaml(client.genericKubernetesResources("argoproj.io/v1alpha1", "Application").inNamespace(ARGOCD_NS).withName(config.getApplicationName()).get()));
-        }
-        LOG.info("Argocd Application: {} synced", config.getApplicationName());
-
-        Application app = client.resources(Application.class)
-            .inNamespace(ARGOCD_NS)
-            .withName(config.getApplicationName()).get();
-        LOG.warn(client.getKubernetesSerialization().asYaml(app));
+        waitTillApplicationSynced(config);
 
         AppProject appProject = client.resources(AppProject.class)
-            .inNamespace(ARGOCD_NS)
-            .withName(config.getApplicationName()).get();
+            .inNamespace(config.getProjectNamespace())
+            .withName(config.getProjectName()).get();
         LOG.warn(client.getKubernetesSerialization().asYaml(appProject));
     }
 
@@ -243,95 +264,30 @@ public class ArgoCDCITest extends BaseContainer {
       deploy it under its own namespace
       That requires to enable the "App in any namespaces" as documented:
       https://argo-cd.readthedocs.io/en/stable/operator-manual/app-any-namespace/
+      The runner adds the namespace of the Application to the property: application.namespaces
     */
-    @Test
-    @Order(3)
-    public void testCaseThree() {
-        String ARGO_APPLICATION_NAMESPACE = "test3";
-
-        Config config = new Config();
-        config.setProjectName("test-3");
-        config.setGitUrl("https://github.com/argoproj/argocd-example-apps.git");
-        config.setDestinationNamespace(ARGO_APPLICATION_NAMESPACE);
-        // The following property is needed otherwise we got as error
-        // message: application 'test-3' in namespace 'test3' is not permitted to use project 'test-3'
-        config.setSourceNamespaces(ARGO_APPLICATION_NAMESPACE);
-
-        config.setApplicationName("test-3");
-        config.setApplicationNamespace(ARGO_APPLICATION_NAMESPACE);
-
-        config.setGitRevision("master");
-
-        LOG.info(">>> Running the test case - 3");
-
-        LOG.info("Patching the Argocd ConfigMap to add the test3 namespace to the property: application.namespaces");
-        client.configMaps().inNamespace(ARGOCD_NS).withName(ARGOCD_CONFIGMAP_PARAMS_NAME)
-            .edit(cm -> new ConfigMapBuilder(cm)
-                .addToData("application.namespaces",ARGO_APPLICATION_NAMESPACE)
-                .build());
-
-        LOG.info("Creating the test3 namespace");
-        client.namespaces().resource(new NamespaceBuilder().withNewMetadata().withName(ARGO_APPLICATION_NAMESPACE).endMetadata().build()).create();
-
-        LOG.info("Rolling the ArgoCD server & Application Controller");
-        client.apps().deployments().inNamespace(ARGOCD_NS).withName(ARGOCD_SERVER_NAME)
-            .rolling().restart();
-        client.apps().statefulSets().inNamespace(ARGOCD_NS).withName(ARGOCD_APP_CONTROLLER_NAME)
-            .rolling().restart();
-
-        waitTillPodByLabelReady(ARGOCD_NS,"app.kubernetes.io/name",ARGOCD_SERVER_NAME);
-        waitTillPodReady(ARGOCD_NS, ARGOCD_APP_CONTROLLER_NAME + "-0");
-
+    static void applicationInAnyNamespaceScenario(Config config) {
         LOG.info("Deploy the AppProject");
         client.resource(populateProject(config))
-            .inNamespace(ARGOCD_NS)
+            .inNamespace(config.getProjectNamespace())
             .create();
 
         LOG.info("Deploy the Application");
         client.resource(populateApplication(config))
-            .inNamespace(ARGO_APPLICATION_NAMESPACE)
+            .inNamespace(config.getApplicationNamespace())
             .create();
 
-        LOG.info("Checking when Argocd Application will be Healthy");
-        try {
-            client.resources(Application.class)
-                .inNamespace(ARGO_APPLICATION_NAMESPACE)
-                .withName(config.getApplicationName())
-                .waitUntilCondition(a ->
-                    a != null &&
-                        a.getStatus() != null &&
-                        a.getStatus().getHealth() != null &&
-                        a.getStatus().getHealth().getStatus() != null &&
-                        a.getStatus().getHealth().getStatus().equals("Healthy"), 3600, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            LOG.error(client.getKubernetesSerialization().asYaml(client.genericKubernetesResources("argoproj.io/v1alpha1", "Application").inNamespace(ARGO_APPLICATION_NAMESPACE).withName(config.getApplicationName()).get()));
-        }
-        LOG.info("Argocd Application: {} healthy", config.getApplicationName());
+        waitTillApplicationSynced(config);
+    }
 
-        LOG.info("Checking now when Argocd Application will be synced");
-        try {
-            client.resources(Application.class)
-                .inNamespace(ARGO_APPLICATION_NAMESPACE)
-                .withName(config.getApplicationName())
-                .waitUntilCondition(a ->
-                    a != null &&
-                        a.getStatus() != null &&
-                        a.getStatus().getSync() != null &&
-                        a.getStatus().getSync().getStatus() != null &&
-                        a.getStatus().getSync().getStatus().equals("Synced"), 3600, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            LOG.error(client.getKubernetesSerialization().asYaml(client.genericKubernetesResources("argoproj.io/v1alpha1", "Application").inNamespace(ARGO_APPLICATION_NAMESPACE).withName(config.getApplicationName()).get()));
-        }
-        LOG.info("Argocd Application: {} synced", config.getApplicationName());
+    private static void waitTillApplicationSynced(Config config) {
+        LOG.info("Checking when Argocd Application {} will be Healthy", config.getApplicationName());
+        waitTillApplication(config.getApplicationNamespace(), config.getApplicationName(), healthy());
 
-        Application app = client.resources(Application.class)
-            .inNamespace("test-3")
-            .withName(config.getApplicationName()).get();
-        LOG.warn(client.getKubernetesSerialization().asYaml(app));
+        LOG.info("Checking now when Argocd Application {} will be synced", config.getApplicationName());
+        waitTillApplication(config.getApplicationNamespace(), config.getApplicationName(), synced());
 
-        AppProject appProject = client.resources(AppProject.class)
-            .inNamespace("test-3")
-            .withName(config.getApplicationName()).get();
-        LOG.warn(client.getKubernetesSerialization().asYaml(appProject));
+        Application app = applications.get(config.getApplicationNamespace(), config.getApplicationName());
+        LOG.warn(client.getKubernetesSerialization().asYaml(app));
     }
 }
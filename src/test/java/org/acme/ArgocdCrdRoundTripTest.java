@@ -0,0 +1,78 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.api.model.apiextensions.v1.CustomResourceDefinition;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.quarkiverse.argocd.v1alpha1.AppProject;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.acme.ArgocdResourceGenerator.populateApplication;
+import static org.acme.ArgocdResourceGenerator.populateProject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+  Install the ArgoCD CRDs and round trip the generated Application and AppProject through
+  the API server: no pod is needed, so the test runs against the API server only flavor.
+  Server side apply keeps the test repeatable on a reused cluster.
+*/
+@RequiresCluster(ClusterCapability.API_ONLY)
+public class ArgocdCrdRoundTripTest extends BaseContainer {
+    private static final String NAMESPACE = "crd-round-trip";
+
+    static KubernetesClient client;
+
+    @BeforeAll
+    public static void installCrds() {
+        client = KubernetesClients.shared(cluster(ArgocdCrdRoundTripTest.class).getKubeconfig());
+        client.namespaces().resource(new NamespaceBuilder().withNewMetadata().withName(NAMESPACE).endMetadata().build())
+            .fieldManager(ManifestApplier.FIELD_MANAGER)
+            .serverSideApply();
+
+        try (var applier = new ManifestApplier(client, NAMESPACE).withMode(ManifestApplier.Mode.SERVER_SIDE_APPLY);
+             var crds = StreamingManifestLoader.load(client.getKubernetesSerialization(),
+                 ArgocdCrdRoundTripTest.class.getResourceAsStream("/argocd-2.13.yml"),
+                 h -> "CustomResourceDefinition".equals(h.kind()))) {
+            var report = applier.apply(crds);
+            assertTrue(report.failures().isEmpty(), "Some argocd CRDs failed to be applied");
+        }
+        for (String crd : new String[] { "applications.argoproj.io", "appprojects.argoproj.io" }) {
+            client.resources(CustomResourceDefinition.class).withName(crd).waitUntilCondition(c -> c != null && c.getStatus() != null
+                && c.getStatus().getConditions() != null && c.getStatus().getConditions().stream().anyMatch(cond -> "Established".equals(cond.getType()) && "True".equals(cond.getStatus())),
+                60, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Config config() {
+        Config config = new Config();
+        config.setApplicationName("round-trip");
+        config.setApplicationNamespace(NAMESPACE);
+        config.setDestinationNamespace(NAMESPACE);
+        config.setProjectName("round-trip");
+        config.setProjectNamespace(NAMESPACE);
+        config.setGitRevision("master");
+        return config;
+    }
+
+    @Test
+    public void generated_application_round_trips() {
+        Application application = populateApplication(config());
+        Application stored = client.resource(application).fieldManager(ManifestApplier.FIELD_MANAGER).serverSideApply();
+
+        assertEquals(client.getKubernetesSerialization().asYaml(application.getSpec()),
+            client.getKubernetesSerialization().asYaml(stored.getSpec()));
+    }
+
+    @Test
+    public void generated_project_round_trips() {
+        AppProject project = populateProject(config());
+        AppProject stored = client.resource(project).fieldManager(ManifestApplier.FIELD_MANAGER).serverSideApply();
+
+        assertEquals(client.getKubernetesSerialization().asYaml(project.getSpec()),
+            client.getKubernetesSerialization().asYaml(stored.getSpec()));
+    }
+}
@@ -5,8 +5,73 @@ import io.quarkiverse.argocd.v1alpha1.AppProjectBuilder;
 import io.quarkiverse.argocd.v1alpha1.Application;
 import io.quarkiverse.argocd.v1alpha1.ApplicationBuilder;
 
+import java.util.stream.Stream;
+
 public class ArgocdResourceGenerator {
 
+    /*
+      Per application parameters of the batch API. The namespace is used for the Application
+      and as destination namespace, like populateApplication does.
+    */
+    public record ApplicationParams(String name, String namespace, String revision, String path) {
+    }
+
+    /*
+      Template of the batch API built once from a Config. The sub-objects which never change
+      between applications (helm source settings, sync policy, project spec) are taken from the
+      prototypes and shared by all the generated resources, so they must be treated as immutable.
+    */
+    public record ResourceTemplate(Application application, AppProject project) {
+        public static ResourceTemplate of(Config config) {
+            return new ResourceTemplate(populateApplication(config), populateProject(config));
+        }
+    }
+
+    public static Stream<Application> populateApplications(ResourceTemplate template, Stream<ApplicationParams> params) {
+        var spec = template.application().getSpec();
+        return params.map(p -> {
+            // @formatter:off
+            Application application = new ApplicationBuilder()
+                    .withNewMetadata()
+                      .withName(p.name())
+                      .withNamespace(p.namespace())
+                    .endMetadata()
+                    .withNewSpec()
+                      .withProject(spec.getProject())
+                      .withNewDestination()
+                        .withServer(spec.getDestination().getServer())
+                        .withNamespace(p.namespace())
+                      .endDestination()
+                      .withNewSource()
+                        .withPath(p.path())
+                        .withRepoURL(spec.getSource().getRepoURL())
+                        .withTargetRevision(p.revision())
+                      .endApplicationspecSource()
+                    .endSpec()
+                    .build();
+            // @formatter:on
+            application.getSpec().getSource().setHelm(spec.getSource().getHelm());
+            application.getSpec().setSyncPolicy(spec.getSyncPolicy());
+            return application;
+        });
+    }
+
+    public static Stream<AppProject> populateProjects(ResourceTemplate template, Stream<String> names) {
+        var prototype = template.project();
+        return names.map(name -> {
+            // @formatter:off
+            AppProject project = new AppProjectBuilder()
+                    .withNewMetadata()
+                      .withName(name)
+                      .withNamespace(prototype.getMetadata().getNamespace())
+                    .endMetadata()
+                    .build();
+            // @formatter:on
+            project.setSpec(prototype.getSpec());
+            return project;
+        });
+    }
+
     public static AppProject populateProject(Config config) {
     // @formatter:off
         var projectBuilder = new AppProjectBuilder()
@@ -41,7 +106,7 @@ public class ArgocdResourceGenerator {
                   .withProject(config.getProjectName())
                   .withNewDestination()
                     .withServer(config.getDestinationKubeServer())
-                    .withNamespace(config.getApplicationNamespace())
+                    .withNamespace(config.getDestinationNamespace() != null ? config.getDestinationNamespace() : config.getApplicationNamespace())
                   .endDestination()
                   .withNewSource()
                     .withPath(config.getHelmPath())
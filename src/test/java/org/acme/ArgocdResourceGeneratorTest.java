@@ -0,0 +1,60 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.acme.ArgocdResourceGenerator.ApplicationParams;
+import static org.acme.ArgocdResourceGenerator.ResourceTemplate;
+import static org.acme.ArgocdResourceGenerator.populateApplication;
+import static org.acme.ArgocdResourceGenerator.populateApplications;
+import static org.acme.ArgocdResourceGenerator.populateProject;
+import static org.acme.ArgocdResourceGenerator.populateProjects;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ArgocdResourceGeneratorTest {
+
+    private final KubernetesSerialization serialization = new KubernetesSerialization();
+
+    private static Config config(int i) {
+        Config config = new Config();
+        config.setProjectName("test-" + i);
+        config.setGitUrl("https://github.com/argoproj/argocd-example-apps.git");
+        config.setDestinationNamespace("test-" + i);
+        config.setApplicationName("test-" + i);
+        config.setApplicationNamespace("test-" + i);
+        config.setGitRevision("master");
+        return config;
+    }
+
+    @Test
+    public void batch_applications_match_the_builder_path() {
+        var template = ResourceTemplate.of(config(0));
+        List<Application> applications = populateApplications(template,
+            IntStream.range(0, 10).mapToObj(i -> new ApplicationParams("test-" + i, "test-" + i, "master", "helm-guestbook")))
+            .collect(Collectors.toList());
+
+        for (int i = 0; i < applications.size(); i++) {
+            Config config = config(i);
+            config.setProjectName("test-0");
+            assertEquals(serialization.asYaml(populateApplication(config)), serialization.asYaml(applications.get(i)));
+        }
+        assertSame(applications.get(0).getSpec().getSyncPolicy(), applications.get(9).getSpec().getSyncPolicy());
+    }
+
+    @Test
+    public void batch_projects_match_the_builder_path() {
+        var template = ResourceTemplate.of(config(0));
+        var projects = populateProjects(template, Stream.of("test-0", "test-1")).collect(Collectors.toList());
+
+        Config config = config(0);
+        config.setProjectName("test-1");
+        assertEquals(serialization.asYaml(populateProject(config)), serialization.asYaml(projects.get(1)));
+    }
+}
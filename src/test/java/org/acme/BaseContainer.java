@@ -1,12 +1,15 @@
 package org.acme;
 
-import com.dajudge.kindcontainer.KindContainer;
+import com.dajudge.kindcontainer.KubernetesContainer;
 
+/*
+  Base class of the tests needing a cluster. Nothing is started when the class is loaded: the
+  cluster is provisioned on the first call of cluster() with the cheapest flavor offering the
+  capability declared by the test class with @RequiresCluster (see ClusterFlavors).
+*/
 public class BaseContainer {
-    static final KindContainer KIND;
 
-    static {
-        KIND = new KindContainer();
-        KIND.start();
+    protected static KubernetesContainer<?> cluster(Class<?> testClass) {
+        return ClusterFlavors.acquire(ClusterFlavors.capabilityOf(testClass));
     }
 }
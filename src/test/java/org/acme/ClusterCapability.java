@@ -0,0 +1,9 @@
+package org.acme;
+
+// What a test class needs from its cluster, see RequiresCluster and ClusterFlavors
+public enum ClusterCapability {
+    // An API server only: CRDs, RBAC, admission, resources round trips. Nothing is scheduled
+    API_ONLY,
+    // A node running the pods, e.g. to install ArgoCD and sync Applications
+    WORKLOADS
+}
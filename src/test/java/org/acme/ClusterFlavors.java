@@ -0,0 +1,98 @@
+package org.acme;
+
+import com.dajudge.kindcontainer.ApiServerContainer;
+import com.dajudge.kindcontainer.K3sContainer;
+import com.dajudge.kindcontainer.KubernetesContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.acme.EnvSettings.setting;
+
+/*
+  Provide the cheapest cluster flavor offering the capability requested by a test class,
+  started on first use and shared by all the test classes of the JVM needing the same flavor:
+
+  - API_ONLY:  an API server and etcd only (kindcontainer ApiServerContainer), a few seconds to start,
+  - WORKLOADS: a Kind node (default) or K3s, selected with the env var CLUSTER_WORKLOADS_FLAVOR
+               (or -Dcluster.workloads.flavor) set to kind or k3s.
+
+  The reuse modes of KindClusterPool (KIND_CLUSTER_MODE) apply to all the flavors. The startup
+  time of every flavor is logged when it is started and summarized when the JVM exits.
+*/
+public final class ClusterFlavors {
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterFlavors.class);
+
+    public enum Flavor {
+        API_SERVER(ClusterCapability.API_ONLY),
+        K3S(ClusterCapability.WORKLOADS),
+        KIND(ClusterCapability.WORKLOADS);
+
+        final ClusterCapability capability;
+
+        Flavor(ClusterCapability capability) {
+            this.capability = capability;
+        }
+    }
+
+    private static final Map<Flavor, KubernetesContainer<?>> CLUSTERS = new ConcurrentHashMap<>();
+    private static final Map<Flavor, Duration> STARTUPS = new ConcurrentSkipListMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!STARTUPS.isEmpty()) {
+                LOG.info("Cluster flavors started: {}", STARTUPS.entrySet().stream()
+                    .map(e -> e.getKey() + " in " + e.getValue().toMillis() + " ms").toList());
+            }
+        }));
+    }
+
+    private ClusterFlavors() {
+    }
+
+    public static ClusterCapability capabilityOf(Class<?> testClass) {
+        RequiresCluster requires = testClass.getAnnotation(RequiresCluster.class);
+        return requires != null ? requires.value() : ClusterCapability.WORKLOADS;
+    }
+
+    public static Flavor flavorFor(ClusterCapability capability) {
+        if (capability == ClusterCapability.API_ONLY) {
+            return Flavor.API_SERVER;
+        }
+        String flavor = setting("CLUSTER_WORKLOADS_FLAVOR", Flavor.KIND.name());
+        Flavor workloads = Flavor.valueOf(flavor.toUpperCase());
+        if (workloads.capability != ClusterCapability.WORKLOADS) {
+            throw new IllegalArgumentException("The flavor " + flavor + " can't run workloads");
+        }
+        return workloads;
+    }
+
+    public static KubernetesContainer<?> acquire(ClusterCapability capability) {
+        return CLUSTERS.computeIfAbsent(flavorFor(capability), ClusterFlavors::start);
+    }
+
+    private static KubernetesContainer<?> start(Flavor flavor) {
+        long start = System.nanoTime();
+        KubernetesContainer<?> cluster;
+        try (var span = Timeline.span("cluster", "start " + flavor.name().toLowerCase())) {
+            // Kind has its own lifecycle handling: reuse, pooling and cold start statistics
+            if (flavor == Flavor.KIND) {
+                cluster = KindClusterPool.acquire();
+            } else {
+                cluster = flavor == Flavor.API_SERVER ? new ApiServerContainer<>() : new K3sContainer<>();
+                if (KindClusterPool.mode() != KindClusterPool.Mode.FRESH) {
+                    cluster.withReuse(true);
+                }
+                cluster.start();
+            }
+        }
+        Duration startup = Duration.ofNanos(System.nanoTime() - start);
+        STARTUPS.put(flavor, startup);
+        LOG.info("Cluster flavor {} started in {} ms", flavor, startup.toMillis());
+        return cluster;
+    }
+}
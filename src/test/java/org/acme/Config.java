@@ -20,7 +20,9 @@ public class Config {
 
     private String sourceNamespaces;
 
-    private String gitUrl;
+    // The repository served in the Kind cluster in offline mode, see LocalGitServer
+    @Builder.Default
+    private String gitUrl = LocalGitServer.defaultUrl();
 
     @Builder.Default
     private String gitRevision = "main";
@@ -29,7 +31,7 @@ public class Config {
     private String applicationNamespace;
 
     @Builder.Default
-    private String helmUrl = "https://github.com/argoproj/argocd-example-apps.git";
+    private String helmUrl = LocalGitServer.defaultUrl();
     @Builder.Default
     private String helmPath = "helm-guestbook";
 }
@@ -0,0 +1,198 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+  Edit the keys of a ConfigMap consumed by workloads through env vars (e.g. argocd-cmd-params-cm)
+  and restart only the Deployments and StatefulSets which consume one of the changed keys.
+  The edits are sent as one patch, the rollouts run in parallel and their completion is
+  tracked on the workload status (observedGeneration and updated/ready replicas).
+*/
+public class ConfigChangeRollout {
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigChangeRollout.class);
+
+    // Key used for the workloads importing the whole ConfigMap with envFrom
+    public static final String ALL_KEYS = "*";
+
+    public record Workload(String kind, String name) implements Comparable<Workload> {
+        @Override
+        public int compareTo(Workload other) {
+            return (kind + "/" + name).compareTo(other.kind + "/" + other.name);
+        }
+    }
+
+    public record RolloutReport(Set<String> changedKeys, Map<Workload, Duration> rollouts) {
+    }
+
+    private final KubernetesClient client;
+    private final String namespace;
+
+    public ConfigChangeRollout(KubernetesClient client, String namespace) {
+        this.client = client;
+        this.namespace = namespace;
+    }
+
+    // Key of the ConfigMap -> workloads reading it, as declared by their env var definitions
+    public Map<String, Set<Workload>> consumers(String configMap) {
+        Map<String, Set<Workload>> consumers = new HashMap<>();
+        Stream.concat(
+                client.apps().deployments().inNamespace(namespace).list().getItems().stream()
+                    .map(d -> Map.entry(workloadOf(d), d.getSpec().getTemplate().getSpec())),
+                client.apps().statefulSets().inNamespace(namespace).list().getItems().stream()
+                    .map(s -> Map.entry(workloadOf(s), s.getSpec().getTemplate().getSpec())))
+            .forEach(e -> keysOf(configMap, e.getValue()).forEach(key ->
+                consumers.computeIfAbsent(key, k -> new TreeSet<>()).add(e.getKey())));
+        return consumers;
+    }
+
+    public RolloutReport apply(String configMap, Map<String, String> edits, long timeout, TimeUnit unit) {
+        ConfigMap current = client.configMaps().inNamespace(namespace).withName(configMap).require();
+        Map<String, String> data = current.getData() != null ? current.getData() : Map.of();
+        Map<String, String> changed = edits.entrySet().stream()
+            .filter(e -> !Objects.equals(data.get(e.getKey()), e.getValue()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (changed.isEmpty()) {
+            LOG.info("ConfigMap {} already up to date, no rollout needed", configMap);
+            return new RolloutReport(Set.of(), Map.of());
+        }
+
+        try (var span = Timeline.span("configmap", configMap + " " + changed.keySet())) {
+            // The digest of the applied manifest no longer matches, so that ManifestApplier applies it again
+            client.configMaps().inNamespace(namespace).withName(configMap)
+                .edit(cm -> new ConfigMapBuilder(cm).addToData(changed)
+                    .editMetadata().removeFromAnnotations(ManifestApplier.DIGEST_ANNOTATION).endMetadata()
+                    .build());
+        }
+        return rollOut(configMap, changed.keySet(), timeout, unit);
+    }
+
+    /*
+      Put back the data and the annotations of a ConfigMap as recorded earlier (e.g. in a KindClusterPool
+      snapshot), the keys added since then being removed, and restart the workloads consuming a changed key.
+    */
+    public RolloutReport restore(ConfigMap recorded, long timeout, TimeUnit unit) {
+        String configMap = recorded.getMetadata().getName();
+        ConfigMap current = client.configMaps().inNamespace(namespace).withName(configMap).require();
+        Map<String, String> data = recorded.getData() != null ? recorded.getData() : Map.of();
+        Map<String, String> live = current.getData() != null ? current.getData() : Map.of();
+        Set<String> changed = Stream.concat(data.keySet().stream(), live.keySet().stream())
+            .filter(key -> !Objects.equals(data.get(key), live.get(key)))
+            .collect(Collectors.toCollection(TreeSet::new));
+        if (changed.isEmpty() && Objects.equals(recorded.getMetadata().getAnnotations(), current.getMetadata().getAnnotations())) {
+            return new RolloutReport(Set.of(), Map.of());
+        }
+
+        try (var span = Timeline.span("configmap", configMap + " restore " + changed)) {
+            client.configMaps().inNamespace(namespace).withName(configMap)
+                .edit(cm -> new ConfigMapBuilder(cm).withData(new HashMap<>(data))
+                    .editMetadata().withAnnotations(recorded.getMetadata().getAnnotations()).endMetadata()
+                    .build());
+        }
+        return changed.isEmpty() ? new RolloutReport(Set.of(), Map.of()) : rollOut(configMap, changed, timeout, unit);
+    }
+
+    private RolloutReport rollOut(String configMap, Set<String> changedKeys, long timeout, TimeUnit unit) {
+        Map<String, Set<Workload>> consumers = consumers(configMap);
+        Set<Workload> affected = Stream.concat(changedKeys.stream(), Stream.of(ALL_KEYS))
+            .flatMap(key -> consumers.getOrDefault(key, Set.of()).stream())
+            .collect(Collectors.toCollection(TreeSet::new));
+        LOG.info("ConfigMap {} keys {} changed, rolling out {}", configMap, changedKeys, affected);
+
+        Map<Workload, Duration> rollouts = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<Workload, Future<Duration>> futures = new LinkedHashMap<>();
+            affected.forEach(w -> futures.put(w, executor.submit(() -> rollout(w, timeout, unit))));
+            for (Map.Entry<Workload, Future<Duration>> e : futures.entrySet()) {
+                rollouts.put(e.getKey(), e.getValue().get());
+                LOG.info("{} {} rolled out in {} ms", e.getKey().kind(), e.getKey().name(), rollouts.get(e.getKey()).toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rolling out " + affected, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollout of " + affected + " failed", e.getCause());
+        }
+        return new RolloutReport(changedKeys, rollouts);
+    }
+
+    private Duration rollout(Workload workload, long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        try (var span = Timeline.span("rollout", workload.kind() + "/" + workload.name())) {
+            if ("StatefulSet".equals(workload.kind())) {
+                var statefulSet = client.apps().statefulSets().inNamespace(namespace).withName(workload.name());
+                long generation = statefulSet.rolling().restart().getMetadata().getGeneration();
+                statefulSet.waitUntilCondition(s -> s != null && isRolledOut(s, generation), timeout, unit);
+            } else {
+                var deployment = client.apps().deployments().inNamespace(namespace).withName(workload.name());
+                long generation = deployment.rolling().restart().getMetadata().getGeneration();
+                deployment.waitUntilCondition(d -> d != null && isRolledOut(d, generation), timeout, unit);
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    static boolean isRolledOut(Deployment d, long generation) {
+        var status = d.getStatus();
+        int replicas = d.getSpec().getReplicas() != null ? d.getSpec().getReplicas() : 1;
+        return status != null
+            && status.getObservedGeneration() != null && status.getObservedGeneration() >= generation
+            && Objects.equals(status.getUpdatedReplicas(), replicas)
+            && Objects.equals(status.getReplicas(), replicas)
+            && Objects.equals(status.getAvailableReplicas(), replicas);
+    }
+
+    static boolean isRolledOut(StatefulSet s, long generation) {
+        var status = s.getStatus();
+        int replicas = s.getSpec().getReplicas() != null ? s.getSpec().getReplicas() : 1;
+        return status != null
+            && status.getObservedGeneration() != null && status.getObservedGeneration() >= generation
+            && Objects.equals(status.getUpdatedReplicas(), replicas)
+            && Objects.equals(status.getReadyReplicas(), replicas)
+            && Objects.equals(status.getCurrentRevision(), status.getUpdateRevision());
+    }
+
+    private static Workload workloadOf(HasMetadata workload) {
+        return new Workload(workload.getKind(), workload.getMetadata().getName());
+    }
+
+    static Set<String> keysOf(String configMap, PodSpec spec) {
+        Set<String> keys = new TreeSet<>();
+        List<Container> containers = Stream.concat(spec.getInitContainers().stream(), spec.getContainers().stream()).collect(Collectors.toList());
+        for (Container container : containers) {
+            container.getEnv().stream()
+                .filter(env -> env.getValueFrom() != null && env.getValueFrom().getConfigMapKeyRef() != null)
+                .map(env -> env.getValueFrom().getConfigMapKeyRef())
+                .filter(ref -> configMap.equals(ref.getName()))
+                .forEach(ref -> keys.add(ref.getKey()));
+            container.getEnvFrom().stream()
+                .filter(env -> env.getConfigMapRef() != null && configMap.equals(env.getConfigMapRef().getName()))
+                .forEach(env -> keys.add(ALL_KEYS));
+        }
+        return keys;
+    }
+}
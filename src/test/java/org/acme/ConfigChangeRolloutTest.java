@@ -0,0 +1,95 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.api.model.apps.StatefulSetBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigChangeRolloutTest {
+
+    private static PodSpec podSpecOf(HasMetadata workload) {
+        return workload instanceof Deployment d ? d.getSpec().getTemplate().getSpec() : ((StatefulSet) workload).getSpec().getTemplate().getSpec();
+    }
+
+    @Test
+    public void consumers_of_a_key_are_found_from_the_env_var_definitions() {
+        try (KubernetesClient client = new KubernetesClientBuilder().build()) {
+            List<HasMetadata> workloads = client.load(ConfigChangeRolloutTest.class.getResourceAsStream("/argocd-2.13.yml")).items().stream()
+                .filter(item -> item instanceof Deployment || item instanceof StatefulSet)
+                .collect(Collectors.toList());
+            assertEquals(7, workloads.size());
+
+            Set<String> consumers = workloads.stream()
+                .filter(w -> ConfigChangeRollout.keysOf("argocd-cmd-params-cm", podSpecOf(w)).contains("application.namespaces"))
+                .map(w -> w.getKind() + "/" + w.getMetadata().getName())
+                .collect(Collectors.toSet());
+            assertEquals(Set.of(
+                "Deployment/argocd-notifications-controller",
+                "Deployment/argocd-server",
+                "StatefulSet/argocd-application-controller"), consumers);
+
+            // No workload imports the whole ConfigMap, and redis reads none of its keys
+            workloads.forEach(w -> assertFalse(ConfigChangeRollout.keysOf("argocd-cmd-params-cm", podSpecOf(w)).contains(ConfigChangeRollout.ALL_KEYS)));
+            HasMetadata redis = workloads.stream().filter(w -> "argocd-redis".equals(w.getMetadata().getName())).findFirst().orElseThrow();
+            assertTrue(ConfigChangeRollout.keysOf("argocd-cmd-params-cm", podSpecOf(redis)).isEmpty());
+        }
+    }
+
+    private static DeploymentBuilder deployment(long observedGeneration, int updated, int available) {
+        return new DeploymentBuilder()
+            .withNewMetadata().withName("argocd-server").withGeneration(2L).endMetadata()
+            .withNewSpec().withReplicas(2).endSpec()
+            .withNewStatus()
+              .withObservedGeneration(observedGeneration)
+              .withReplicas(2)
+              .withUpdatedReplicas(updated)
+              .withAvailableReplicas(available)
+            .endStatus();
+    }
+
+    @Test
+    public void deployment_is_rolled_out_once_all_its_replicas_are_updated_for_the_generation() {
+        assertTrue(ConfigChangeRollout.isRolledOut(deployment(2, 2, 2).build(), 2));
+        // The controller hasn't seen the restart yet
+        assertFalse(ConfigChangeRollout.isRolledOut(deployment(1, 2, 2).build(), 2));
+        assertFalse(ConfigChangeRollout.isRolledOut(deployment(2, 1, 2).build(), 2));
+        assertFalse(ConfigChangeRollout.isRolledOut(deployment(2, 2, 1).build(), 2));
+        assertFalse(ConfigChangeRollout.isRolledOut(deployment(2, 2, 2).withStatus(null).build(), 2));
+    }
+
+    private static StatefulSetBuilder statefulSet(long observedGeneration, int ready, String currentRevision) {
+        return new StatefulSetBuilder()
+            .withNewMetadata().withName("argocd-application-controller").withGeneration(2L).endMetadata()
+            .withNewSpec().endSpec()
+            .withNewStatus()
+              .withObservedGeneration(observedGeneration)
+              .withReplicas(1)
+              .withUpdatedReplicas(1)
+              .withReadyReplicas(ready)
+              .withCurrentRevision(currentRevision)
+              .withUpdateRevision("argocd-application-controller-7f9c")
+            .endStatus();
+    }
+
+    @Test
+    public void stateful_set_is_rolled_out_once_its_current_revision_is_the_update_revision() {
+        // The replicas default to 1
+        assertTrue(ConfigChangeRollout.isRolledOut(statefulSet(2, 1, "argocd-application-controller-7f9c").build(), 2));
+        assertFalse(ConfigChangeRollout.isRolledOut(statefulSet(1, 1, "argocd-application-controller-7f9c").build(), 2));
+        assertFalse(ConfigChangeRollout.isRolledOut(statefulSet(2, 1, "argocd-application-controller-5d4b").build(), 2));
+        assertFalse(ConfigChangeRollout.isRolledOut(statefulSet(2, 0, "argocd-application-controller-7f9c").build(), 2));
+    }
+}
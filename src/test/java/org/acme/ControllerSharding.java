@@ -0,0 +1,200 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.LocalPortForward;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.acme.EnvSettings.setting;
+
+/*
+  Run the argocd-application-controller StatefulSet with several shards and measure how the
+  Applications are spread across them. The option is read from the env vars (or the system
+  properties in lower case with dots):
+  - ARGOCD_CONTROLLER_SHARDS: number of replicas of the controller (default: 1, no sharding)
+  - ARGOCD_CONTROLLER_SHARDING_ALGORITHM: legacy (default), round-robin or consistent-hashing
+
+  ArgoCD shards the controllers by destination cluster, so with the single in-cluster destination
+  every Application lands on the same shard. createClusterAliases() registers the API server under
+  the other names of its certificate as extra clusters, so that the Applications can be spread
+  across several destination clusters which are all the Kind cluster.
+*/
+public class ControllerSharding {
+    private static final Logger LOG = LoggerFactory.getLogger(ControllerSharding.class);
+
+    public static final String CONTROLLER = "argocd-application-controller";
+    public static final String IN_CLUSTER = "https://kubernetes.default.svc";
+    // Names of the API server in its serving certificate, each one registered as a distinct cluster
+    static final List<String> ALIASES = List.of(
+        "https://kubernetes.default.svc.cluster.local",
+        "https://kubernetes.default",
+        "https://kubernetes",
+        "https://kubernetes.default.svc:443");
+
+    private static final int METRICS_PORT = 8082;
+    private static final String TOKEN_SECRET = CONTROLLER + "-cluster-token";
+
+    public record Settings(int replicas, String algorithm) {
+        public static Settings fromEnvironment() {
+            return new Settings(
+                Integer.parseInt(setting("ARGOCD_CONTROLLER_SHARDS", "1")),
+                setting("ARGOCD_CONTROLLER_SHARDING_ALGORITHM", "legacy"));
+        }
+
+        public boolean isEnabled() {
+            return replicas > 1;
+        }
+    }
+
+    public record ShardStats(String pod, int applications, int clusters, long reconciles, double meanReconcileMillis) {
+    }
+
+    private final KubernetesClient client;
+    private final String namespace;
+
+    public ControllerSharding(KubernetesClient client, String namespace) {
+        this.client = client;
+        this.namespace = namespace;
+    }
+
+    // Rewrite the controller StatefulSet of the manifest with the replicas and the algorithm, other resources are returned unchanged
+    public static <T extends HasMetadata> T configure(T item, Settings settings) {
+        if (!(item instanceof StatefulSet statefulSet) || !CONTROLLER.equals(item.getMetadata().getName())) {
+            return item;
+        }
+        statefulSet.getSpec().setReplicas(settings.replicas());
+        var container = statefulSet.getSpec().getTemplate().getSpec().getContainers().stream()
+            .filter(c -> CONTROLLER.equals(c.getName()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No " + CONTROLLER + " container in the StatefulSet"));
+        setEnv(container.getEnv(), "ARGOCD_CONTROLLER_REPLICAS", Integer.toString(settings.replicas()));
+        setEnv(container.getEnv(), "ARGOCD_CONTROLLER_SHARDING_ALGORITHM", settings.algorithm());
+        return item;
+    }
+
+    public static List<ReadinessWaiter.Target> targets(Settings settings) {
+        return IntStream.range(0, Math.max(1, settings.replicas()))
+            .mapToObj(i -> ReadinessWaiter.Target.byName(CONTROLLER + "-" + i))
+            .collect(Collectors.toList());
+    }
+
+    /*
+      Register up to count - 1 aliases of the API server as clusters, authenticated with a token
+      of the controller service account. Returns the servers to use as destinations, in-cluster included.
+    */
+    public List<String> createClusterAliases(int count, long timeout, TimeUnit unit) {
+        List<String> servers = new ArrayList<>(List.of(IN_CLUSTER));
+        List<String> aliases = ALIASES.subList(0, Math.min(ALIASES.size(), Math.max(0, count - 1)));
+        if (aliases.isEmpty()) {
+            return servers;
+        }
+
+        // @formatter:off
+        client.resource(new SecretBuilder()
+            .withNewMetadata()
+              .withName(TOKEN_SECRET)
+              .withNamespace(namespace)
+              .addToAnnotations("kubernetes.io/service-account.name", CONTROLLER)
+            .endMetadata()
+            .withType("kubernetes.io/service-account-token")
+            .build()).fieldManager(ManifestApplier.FIELD_MANAGER).serverSideApply();
+        // @formatter:on
+        Secret token = client.secrets().inNamespace(namespace).withName(TOKEN_SECRET)
+            .waitUntilCondition(s -> s != null && s.getData() != null && s.getData().containsKey("token"), timeout, unit);
+        String bearerToken = new String(Base64.getDecoder().decode(token.getData().get("token")));
+        String caData = token.getData().get("ca.crt");
+
+        for (int i = 0; i < aliases.size(); i++) {
+            String config = "{\"bearerToken\":\"" + bearerToken + "\",\"tlsClientConfig\":{\"insecure\":false,\"caData\":\"" + caData + "\"}}";
+            // @formatter:off
+            client.resource(new SecretBuilder()
+                .withNewMetadata()
+                  .withName("cluster-alias-" + (i + 1))
+                  .withNamespace(namespace)
+                  .addToLabels("argocd.argoproj.io/secret-type", "cluster")
+                .endMetadata()
+                .withStringData(Map.of("name", "alias-" + (i + 1), "server", aliases.get(i), "config", config))
+                .build()).fieldManager(ManifestApplier.FIELD_MANAGER).forceConflicts().serverSideApply();
+            // @formatter:on
+            servers.add(aliases.get(i));
+        }
+        LOG.info("Clusters registered for the shards: {}", servers);
+        return servers;
+    }
+
+    // Scrape the metrics of every shard through a port forward
+    public List<ShardStats> shardStats() {
+        HttpClient http = HttpClient.newHttpClient();
+        List<ShardStats> stats = new ArrayList<>();
+        var pods = client.pods().inNamespace(namespace).withLabel("app.kubernetes.io/name", CONTROLLER).list().getItems();
+        for (var pod : pods) {
+            String name = pod.getMetadata().getName();
+            try (LocalPortForward forward = client.pods().inNamespace(namespace).withName(name).portForward(METRICS_PORT)) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + forward.getLocalPort() + "/metrics")).build();
+                stats.add(parse(name, http.send(request, HttpResponse.BodyHandlers.ofString()).body()));
+            } catch (IOException e) {
+                LOG.warn("Unable to read the metrics of {}", name, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading the metrics of " + name, e);
+            }
+        }
+        stats.sort((a, b) -> a.pod().compareTo(b.pod()));
+        return stats;
+    }
+
+    public static void log(Logger logger, Settings settings, List<ShardStats> stats) {
+        int total = stats.stream().mapToInt(ShardStats::applications).sum();
+        logger.info("{} Applications spread across {} shards ({}):", total, stats.size(), settings.algorithm());
+        stats.forEach(s -> logger.info("  {}: {} applications ({}%), {} clusters, {} reconciles, mean reconcile {} ms", s.pod(),
+            s.applications(), total == 0 ? 0 : s.applications() * 100 / total, s.clusters(), s.reconciles(),
+            String.format("%.1f", s.meanReconcileMillis())));
+    }
+
+    // Prometheus text format: a shard only exposes the Applications and clusters it manages
+    static ShardStats parse(String pod, String metrics) {
+        int applications = 0;
+        int clusters = 0;
+        double reconcileSeconds = 0;
+        long reconciles = 0;
+        for (String line : metrics.lines().toList()) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            String value = line.substring(line.lastIndexOf(' ') + 1);
+            if (line.startsWith("argocd_app_info{")) {
+                applications++;
+            } else if (line.startsWith("argocd_cluster_info{")) {
+                clusters++;
+            } else if (line.startsWith("argocd_app_reconcile_sum")) {
+                reconcileSeconds += Double.parseDouble(value);
+            } else if (line.startsWith("argocd_app_reconcile_count")) {
+                reconciles += (long) Double.parseDouble(value);
+            }
+        }
+        return new ShardStats(pod, applications, clusters, reconciles, reconciles == 0 ? 0 : reconcileSeconds * 1000 / reconciles);
+    }
+
+    private static void setEnv(List<EnvVar> env, String name, String value) {
+        env.removeIf(e -> name.equals(e.getName()));
+        env.add(new EnvVar(name, value, null));
+    }
+}
@@ -0,0 +1,56 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ControllerShardingTest {
+
+    @Test
+    public void controller_statefulset_is_rewritten_with_the_shards() {
+        try (KubernetesClient client = new KubernetesClientBuilder().build()) {
+            List<HasMetadata> items = client.load(ControllerShardingTest.class.getResourceAsStream("/argocd-2.13.yml")).items();
+            var settings = new ControllerSharding.Settings(3, "round-robin");
+
+            StatefulSet controller = items.stream()
+                .map(item -> ControllerSharding.configure(item, settings))
+                .filter(StatefulSet.class::isInstance)
+                .map(StatefulSet.class::cast)
+                .findFirst().orElseThrow();
+
+            assertEquals(3, controller.getSpec().getReplicas());
+            Map<String, EnvVar> env = controller.getSpec().getTemplate().getSpec().getContainers().get(0).getEnv().stream()
+                .collect(Collectors.toMap(EnvVar::getName, e -> e));
+            assertEquals("3", env.get("ARGOCD_CONTROLLER_REPLICAS").getValue());
+            assertEquals("round-robin", env.get("ARGOCD_CONTROLLER_SHARDING_ALGORITHM").getValue());
+            assertEquals(null, env.get("ARGOCD_CONTROLLER_SHARDING_ALGORITHM").getValueFrom());
+            assertEquals(List.of("argocd-application-controller-0", "argocd-application-controller-1", "argocd-application-controller-2"),
+                ControllerSharding.targets(settings).stream().map(ReadinessWaiter.Target::component).toList());
+        }
+    }
+
+    @Test
+    public void shard_metrics_are_parsed() {
+        String metrics = """
+            # HELP argocd_app_info Information about application.
+            argocd_app_info{name="load-0",namespace="argocd",sync_status="Synced"} 1
+            argocd_app_info{name="load-2",namespace="argocd",sync_status="Synced"} 1
+            argocd_cluster_info{server="https://kubernetes.default.svc"} 1
+            argocd_app_reconcile_sum{dest_server="https://kubernetes.default.svc",namespace="argocd"} 1.5
+            argocd_app_reconcile_count{dest_server="https://kubernetes.default.svc",namespace="argocd"} 6
+            """;
+
+        var stats = ControllerSharding.parse("argocd-application-controller-0", metrics);
+
+        assertEquals(new ControllerSharding.ShardStats("argocd-application-controller-0", 2, 1, 6, 250.0), stats);
+    }
+}
@@ -0,0 +1,17 @@
+package org.acme;
+
+/*
+  Settings of the test harness: each one is read from an env var, e.g. KIND_CLUSTER_MODE,
+  or else from the system property with the same name in lower case with dots, e.g.
+  -Dkind.cluster.mode, or else takes its default value.
+*/
+final class EnvSettings {
+
+    private EnvSettings() {
+    }
+
+    static String setting(String env, String defaultValue) {
+        String value = System.getenv(env);
+        return value != null ? value : System.getProperty(env.toLowerCase().replace('_', '.'), defaultValue);
+    }
+}
@@ -0,0 +1,305 @@
+package org.acme;
+
+import com.dajudge.kindcontainer.KubernetesContainer;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.apps.DaemonSet;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.utility.MountableFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.acme.EnvSettings.setting;
+
+/*
+  Load the images of the workloads into the Kind node before they are applied, so that the
+  pods start from images already present in containerd instead of pulling them from the registries.
+
+  The images are kept on the host in a content-addressed cache: one tarball per image named after
+  its image id (sha256-<hex>.tar) and an index mapping the image references to their id. A missing
+  image is pulled and saved with the docker client of testcontainers, then every tarball is copied
+  into the node and imported with ctr. Images already known by the node (reused cluster) are skipped.
+
+  The preloading is disabled by default, as it pulls through the docker daemon of the host and stores
+  the tarballs on its disk, and is enabled with the env var KIND_IMAGE_PRELOAD=true (or -Dkind.image.preload=true). The cache lives under ~/.cache/kind-images unless KIND_IMAGE_CACHE
+  (or -Dkind.image.cache) defines another directory.
+*/
+public class ImagePreloader {
+    private static final Logger LOG = LoggerFactory.getLogger(ImagePreloader.class);
+
+    public static final String IF_NOT_PRESENT = "IfNotPresent";
+
+    private static final String INDEX = "index.properties";
+    private static final String STATS = "stats.properties";
+    private static final String COLD_START_KEY = "cold.start.millis";
+    private static final String NODE_DIR = "/tmp/images/";
+
+    public enum Source {
+        NODE,
+        CACHE,
+        PULLED
+    }
+
+    public record ImageLoad(String image, Source source, Duration duration) {
+    }
+
+    public record Report(List<ImageLoad> images, Duration total) {
+        public long count(Source source) {
+            return images.stream().filter(i -> i.source() == source).count();
+        }
+
+        // Cold when at least one image had to be pulled from its registry
+        public boolean isCold() {
+            return count(Source.PULLED) > 0;
+        }
+
+        public void log(Logger logger) {
+            logger.info("{} images loaded in the Kind node in {} ms: {} pulled, {} from the cache, {} already present",
+                images.size(), total.toMillis(), count(Source.PULLED), count(Source.CACHE), count(Source.NODE));
+            images.forEach(i -> logger.info("  {} ({}) in {} ms", i.image(), i.source(), i.duration().toMillis()));
+        }
+    }
+
+    private final KubernetesContainer<?> kind;
+    private final DockerClient docker;
+    private final Path cache;
+
+    public ImagePreloader(KubernetesContainer<?> kind) {
+        this(kind, Path.of(setting("KIND_IMAGE_CACHE", Path.of(System.getProperty("user.home"), ".cache", "kind-images").toString())));
+    }
+
+    public ImagePreloader(KubernetesContainer<?> kind, Path cache) {
+        this.kind = kind;
+        this.docker = kind.getDockerClient();
+        this.cache = cache;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(setting("KIND_IMAGE_PRELOAD", "false"));
+    }
+
+    // Images of the containers and init containers of the workloads, sorted and without duplicates
+    public static Set<String> imagesOf(Collection<? extends HasMetadata> items) {
+        return items.stream()
+            .map(ImagePreloader::podSpecOf)
+            .flatMap(Optional::stream)
+            .flatMap(ImagePreloader::containersOf)
+            .map(Container::getImage)
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    // Let the kubelet use the preloaded images instead of pulling them again (the argocd containers use Always)
+    public static <T extends HasMetadata> T ifNotPresent(T item) {
+        podSpecOf(item).ifPresent(spec -> containersOf(spec).forEach(c -> c.setImagePullPolicy(IF_NOT_PRESENT)));
+        return item;
+    }
+
+    public Report preload(Collection<String> images) {
+        long start = System.nanoTime();
+        Set<String> present = imagesOfNode();
+        Properties index = loadProperties(cache.resolve(INDEX));
+
+        List<ImageLoad> loads = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, Future<ImageLoad>> futures = new LinkedHashMap<>();
+            images.forEach(image -> futures.put(image, executor.submit(() -> load(image, present, index))));
+            for (Future<ImageLoad> future : futures.values()) {
+                loads.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while preloading " + images, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to preload the images " + images, e.getCause());
+        }
+        storeProperties(cache.resolve(INDEX), index, "Image reference -> image id");
+
+        Report report = new Report(loads, Duration.ofNanos(System.nanoTime() - start));
+        Properties stats = loadProperties(cache.resolve(STATS));
+        if (report.isCold()) {
+            stats.setProperty(COLD_START_KEY, Long.toString(report.total().toMillis()));
+            storeProperties(cache.resolve(STATS), stats, "Image preloading statistics");
+            LOG.info("Images preloaded (cold) in {} ms", report.total().toMillis());
+        } else {
+            long coldStart = Long.parseLong(stats.getProperty(COLD_START_KEY, "0"));
+            LOG.info("Images preloaded (warm) in {} ms, saved ~{} ms compared to a cold start", report.total().toMillis(),
+                Math.max(0, coldStart - report.total().toMillis()));
+        }
+        return report;
+    }
+
+    private ImageLoad load(String image, Set<String> present, Properties index) throws IOException, InterruptedException {
+        try (var span = Timeline.span("images", image)) {
+            ImageLoad load = loadImage(image, present, index);
+            span.outcome(load.source().name());
+            return load;
+        }
+    }
+
+    private ImageLoad loadImage(String image, Set<String> present, Properties index) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        if (present.contains(normalize(image))) {
+            return new ImageLoad(image, Source.NODE, Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        Source source = Source.CACHE;
+        Path tarball;
+        synchronized (index) {
+            String id = index.getProperty(image);
+            tarball = id != null ? cache.resolve(fileOf(id)) : null;
+        }
+        if (tarball == null || !Files.exists(tarball)) {
+            source = Source.PULLED;
+            tarball = pullAndSave(image);
+            synchronized (index) {
+                index.setProperty(image, idOf(tarball));
+            }
+        }
+
+        String target = NODE_DIR + tarball.getFileName();
+        kind.copyFileToContainer(MountableFile.forHostPath(tarball), target);
+        var result = kind.execInContainer(importCommand(target));
+        kind.execInContainer("rm", "-f", target);
+        if (result.getExitCode() != 0) {
+            throw new IllegalStateException("Unable to import " + image + " in the Kind node: " + result.getStderr());
+        }
+        // An import matching no platform of the tarball succeeds without importing anything
+        if (!imagesOfNode().contains(normalize(image))) {
+            throw new IllegalStateException("Image " + image + " not found in the Kind node after the import of " + tarball
+                + ": " + result.getStdout());
+        }
+        return new ImageLoad(image, source, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Path pullAndSave(String image) throws IOException, InterruptedException {
+        LOG.info("Pulling {}", image);
+        docker.pullImageCmd(image).exec(new PullImageResultCallback()).awaitCompletion();
+        String id = docker.inspectImageCmd(image).exec().getId();
+
+        Files.createDirectories(cache);
+        Path tarball = cache.resolve(fileOf(id));
+        if (!Files.exists(tarball)) {
+            // Saved by reference so that the import tags the image in containerd
+            Path partial = Files.createTempFile(cache, "image-", ".partial");
+            try (InputStream in = docker.saveImageCmd(image).exec(); OutputStream out = Files.newOutputStream(partial)) {
+                in.transferTo(out);
+            }
+            Files.move(partial, tarball, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return tarball;
+    }
+
+    private Set<String> imagesOfNode() {
+        try {
+            var result = kind.execInContainer("ctr", "-n", "k8s.io", "images", "ls", "-q");
+            return result.getStdout().lines().map(String::trim).collect(Collectors.toSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while listing the images of the Kind node", e);
+        }
+    }
+
+    /*
+      Same flags as kind load: all the platforms of the tarball are imported, the multi-platform
+      docker save output of the hosts using the containerd image store included, and the images
+      are also referenced by digest.
+    */
+    static String[] importCommand(String tarball) {
+        return new String[] { "ctr", "-n", "k8s.io", "images", "import", "--all-platforms", "--digests", tarball };
+    }
+
+    // containerd lists the fully qualified references, e.g. redis:7.0.15-alpine -> docker.io/library/redis:7.0.15-alpine
+    static String normalize(String image) {
+        String name = image;
+        int slash = name.indexOf('/');
+        String first = slash < 0 ? "" : name.substring(0, slash);
+        if (slash < 0) {
+            name = "docker.io/library/" + name;
+        } else if (!first.contains(".") && !first.contains(":") && !first.equals("localhost")) {
+            name = "docker.io/" + name;
+        }
+        int lastSlash = name.lastIndexOf('/');
+        if (!name.contains("@") && name.indexOf(':', lastSlash) < 0) {
+            name = name + ":latest";
+        }
+        return name;
+    }
+
+    // sha256:<hex> -> sha256-<hex>.tar
+    static String fileOf(String id) {
+        return id.replace(':', '-') + ".tar";
+    }
+
+    private static String idOf(Path tarball) {
+        String file = tarball.getFileName().toString();
+        return file.substring(0, file.length() - ".tar".length()).replaceFirst("-", ":");
+    }
+
+    private static Optional<PodSpec> podSpecOf(HasMetadata item) {
+        if (item instanceof Deployment d) {
+            return Optional.ofNullable(d.getSpec()).map(s -> s.getTemplate().getSpec());
+        } else if (item instanceof StatefulSet s) {
+            return Optional.ofNullable(s.getSpec()).map(spec -> spec.getTemplate().getSpec());
+        } else if (item instanceof DaemonSet ds) {
+            return Optional.ofNullable(ds.getSpec()).map(s -> s.getTemplate().getSpec());
+        }
+        return Optional.empty();
+    }
+
+    private static Stream<Container> containersOf(PodSpec spec) {
+        return Stream.concat(spec.getInitContainers().stream(), spec.getContainers().stream());
+    }
+
+    private static Properties loadProperties(Path file) {
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                LOG.warn("Unable to read {}", file, e);
+            }
+        }
+        return properties;
+    }
+
+    private static void storeProperties(Path file, Properties properties, String comment) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                properties.store(out, comment);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to write {}", file, e);
+        }
+    }
+}
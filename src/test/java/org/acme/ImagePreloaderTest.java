@@ -0,0 +1,44 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImagePreloaderTest {
+
+    @Test
+    public void images_are_extracted_from_the_argocd_workloads() {
+        try (KubernetesClient client = new KubernetesClientBuilder().build()) {
+            List<HasMetadata> items = client.load(ImagePreloaderTest.class.getResourceAsStream("/argocd-2.13.yml")).items();
+
+            assertIterableEquals(List.of("ghcr.io/dexidp/dex:v2.41.1", "quay.io/argoproj/argocd:v2.13.2", "redis:7.0.15-alpine"),
+                ImagePreloader.imagesOf(items));
+
+            items.forEach(ImagePreloader::ifNotPresent);
+            assertTrue(items.stream()
+                .filter(Deployment.class::isInstance)
+                .map(Deployment.class::cast)
+                .flatMap(d -> d.getSpec().getTemplate().getSpec().getContainers().stream())
+                .allMatch(c -> ImagePreloader.IF_NOT_PRESENT.equals(c.getImagePullPolicy())));
+        }
+    }
+
+    @Test
+    public void image_references_are_normalized_like_containerd() {
+        assertEquals("docker.io/library/redis:7.0.15-alpine", ImagePreloader.normalize("redis:7.0.15-alpine"));
+        assertEquals("docker.io/alpine/git:latest", ImagePreloader.normalize("alpine/git"));
+        assertEquals("quay.io/argoproj/argocd:v2.13.2", ImagePreloader.normalize("quay.io/argoproj/argocd:v2.13.2"));
+        assertEquals("localhost:5000/app:1.0", ImagePreloader.normalize("localhost:5000/app:1.0"));
+        assertEquals("sha256-abc.tar", ImagePreloader.fileOf("sha256:abc"));
+        assertEquals(List.of("ctr", "-n", "k8s.io", "images", "import", "--all-platforms", "--digests", "/tmp/images/sha256-abc.tar"),
+            List.of(ImagePreloader.importCommand("/tmp/images/sha256-abc.tar")));
+    }
+}
@@ -0,0 +1,183 @@
+package org.acme;
+
+import com.dajudge.kindcontainer.KindContainer;
+import com.github.dockerjava.api.model.Container;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.quarkiverse.argocd.v1alpha1.AppProject;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.acme.EnvSettings.setting;
+
+/*
+  Provide the Kind cluster used by the tests according to the mode defined with the
+  env var KIND_CLUSTER_MODE or the system property kind.cluster.mode:
+
+  - fresh:  a new cluster is started for every JVM (default),
+  - reused: the container is started with the testcontainers reuse flag, so a cluster
+            left running by a previous run is picked up instead of booting a new node.
+            That requires testcontainers.reuse.enable=true in ~/.testcontainers.properties,
+  - pooled: as reused, and the resources created by a test class are removed when it
+            completes and the ArgoCD ConfigMaps they edited are restored (see snapshot/reset)
+            so that the next class finds ArgoCD installed with its initial configuration.
+*/
+public final class KindClusterPool {
+    private static final Logger LOG = LoggerFactory.getLogger(KindClusterPool.class);
+
+    private static final Path STATS = Path.of(System.getProperty("java.io.tmpdir"), "kind-cluster-pool.properties");
+    private static final String COLD_START_KEY = "cold.start.millis";
+
+    public enum Mode {
+        FRESH,
+        REUSED,
+        POOLED
+    }
+
+    public record Snapshot(Set<String> namespaces, Set<String> applications, Set<String> appProjects,
+                           String configNamespace, List<ConfigMap> configMaps) {
+    }
+
+    private KindClusterPool() {
+    }
+
+    public static Mode mode() {
+        return Mode.valueOf(setting("KIND_CLUSTER_MODE", Mode.FRESH.name()).toUpperCase());
+    }
+
+    public static KindContainer acquire() {
+        Mode mode = mode();
+        KindContainer kind = new KindContainer();
+        if (mode != Mode.FRESH) {
+            kind.withReuse(true);
+        }
+
+        // Reused when the container started is one which was already running, no clock involved
+        Set<String> running = mode != Mode.FRESH ? runningContainerIds() : Set.of();
+        Instant start = Instant.now();
+        try (var span = Timeline.span("kind", "start " + mode.name().toLowerCase())) {
+            kind.start();
+        }
+        Duration startup = Duration.between(start, Instant.now());
+
+        boolean warm = running.contains(kind.getContainerId());
+        Properties stats = loadStats();
+        if (warm) {
+            long coldStart = Long.parseLong(stats.getProperty(COLD_START_KEY, "0"));
+            LOG.info("Kind cluster ({}) reused in {} ms, saved ~{} ms compared to a cold start", mode, startup.toMillis(),
+                Math.max(0, coldStart - startup.toMillis()));
+        } else {
+            LOG.info("Kind cluster ({}) started in {} ms", mode, startup.toMillis());
+            stats.setProperty(COLD_START_KEY, Long.toString(startup.toMillis()));
+            storeStats(stats);
+        }
+        return kind;
+    }
+
+    private static Set<String> runningContainerIds() {
+        return DockerClientFactory.instance().client().listContainersCmd()
+            .withLabelFilter(Map.of(DockerClientFactory.TESTCONTAINERS_LABEL, "true"))
+            .exec().stream()
+            .map(Container::getId)
+            .collect(Collectors.toSet());
+    }
+
+    public static boolean isPooled() {
+        return mode() == Mode.POOLED;
+    }
+
+    /*
+      Record what exists on the cluster before a test class creates its own resources, including
+      the ConfigMaps of the namespace holding the ArgoCD configuration (e.g. argocd-cmd-params-cm)
+    */
+    public static Snapshot snapshot(KubernetesClient client, String configNamespace) {
+        return new Snapshot(
+            client.namespaces().list().getItems().stream().map(ns -> ns.getMetadata().getName()).collect(Collectors.toSet()),
+            keys(client.resources(Application.class).inAnyNamespace().list().getItems()),
+            keys(client.resources(AppProject.class).inAnyNamespace().list().getItems()),
+            configNamespace,
+            client.configMaps().inNamespace(configNamespace).list().getItems());
+    }
+
+    /*
+      Delete the Applications, AppProjects and Namespaces created since the snapshot was taken and wait
+      till the Namespaces are gone, so that the next test class doesn't find them Terminating. Then put
+      the ConfigMaps of the snapshot back, restarting the workloads consuming a changed key.
+    */
+    public static void reset(KubernetesClient client, Snapshot snapshot, long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        List<Application> applications = client.resources(Application.class).inAnyNamespace().list().getItems().stream()
+            .filter(a -> !snapshot.applications().contains(key(a)))
+            .collect(Collectors.toList());
+        List<AppProject> appProjects = client.resources(AppProject.class).inAnyNamespace().list().getItems().stream()
+            .filter(p -> !snapshot.appProjects().contains(key(p)))
+            .collect(Collectors.toList());
+        List<String> namespaces = client.namespaces().list().getItems().stream()
+            .map(ns -> ns.getMetadata().getName())
+            .filter(ns -> !snapshot.namespaces().contains(ns))
+            .collect(Collectors.toList());
+
+        applications.forEach(a -> client.resource(a).delete());
+        appProjects.forEach(p -> client.resource(p).delete());
+        namespaces.forEach(ns -> client.namespaces().withName(ns).delete());
+        namespaces.forEach(ns -> client.namespaces().withName(ns).waitUntilCondition(Objects::isNull, timeout, unit));
+
+        // Restored once the Applications are gone: the controller still watches their namespaces to remove their finalizers
+        ConfigChangeRollout rollout = new ConfigChangeRollout(client, snapshot.configNamespace());
+        Set<String> restored = new TreeSet<>();
+        for (ConfigMap configMap : snapshot.configMaps()) {
+            if (!rollout.restore(configMap, timeout, unit).changedKeys().isEmpty()) {
+                restored.add(configMap.getMetadata().getName());
+            }
+        }
+        LOG.info("Cluster reset in {} ms: ConfigMaps {} restored, {} applications, {} projects and namespaces {} deleted",
+            Duration.ofNanos(System.nanoTime() - start).toMillis(), restored, applications.size(), appProjects.size(), namespaces);
+    }
+
+    private static Set<String> keys(List<? extends HasMetadata> items) {
+        return items.stream().map(KindClusterPool::key).collect(Collectors.toSet());
+    }
+
+    private static String key(HasMetadata item) {
+        return item.getMetadata().getNamespace() + "/" + item.getMetadata().getName();
+    }
+
+    private static Properties loadStats() {
+        Properties stats = new Properties();
+        if (Files.exists(STATS)) {
+            try (InputStream in = Files.newInputStream(STATS)) {
+                stats.load(in);
+            } catch (IOException e) {
+                LOG.warn("Unable to read {}", STATS, e);
+            }
+        }
+        return stats;
+    }
+
+    private static void storeStats(Properties stats) {
+        try (OutputStream out = Files.newOutputStream(STATS)) {
+            stats.store(out, "Kind cluster pool statistics");
+        } catch (IOException e) {
+            LOG.warn("Unable to write {}", STATS, e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.fabric8.kubernetes.client.Config.fromKubeconfig;
+import static org.acme.EnvSettings.setting;
+
+/*
+  Create the Kubernetes clients used by the tests so that they all share the same
+  serialization settings (see TrimmingProfile), HTTP settings and request metrics.
+
+  The HTTP settings are read from the env vars (or the system properties in lower case
+  with dots, e.g. kube.client.max.concurrent.requests):
+  - KUBE_CLIENT_MAX_CONCURRENT_REQUESTS: size of the connection pool (default: 64)
+  - KUBE_CLIENT_HTTP2_DISABLE: use HTTP/1.1 only (default: false)
+*/
+public final class KubernetesClients {
+    private static final Logger LOG = LoggerFactory.getLogger(KubernetesClients.class);
+
+    public record Settings(int maxConcurrentRequests, boolean http2Disable) {
+        public static Settings fromEnvironment() {
+            return new Settings(
+                Integer.parseInt(setting("KUBE_CLIENT_MAX_CONCURRENT_REQUESTS", "64")),
+                Boolean.parseBoolean(setting("KUBE_CLIENT_HTTP2_DISABLE", "false")));
+        }
+    }
+
+    private static final Map<String, KubernetesClient> SHARED = new ConcurrentHashMap<>();
+    private static final Map<KubernetesClient, RequestMetrics> METRICS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private KubernetesClients() {
+    }
+
+    public static KubernetesSerialization serialization(TrimmingProfile profile) {
+        return new KubernetesSerialization(profile.configure(new ObjectMapper()), true);
+    }
+
+    /*
+      Returns the client shared by all the tests of the JVM for the given cluster. It must not be
+      closed by the callers: it is closed, and its request metrics logged, when the JVM exits.
+    */
+    public static KubernetesClient shared(String kubeconfig) {
+        return SHARED.computeIfAbsent(kubeconfig, k -> {
+            KubernetesClient client = create(k);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                metrics(client).log(LOG);
+                client.close();
+            }));
+            return client;
+        });
+    }
+
+    public static KubernetesClient create(String kubeconfig) {
+        return create(kubeconfig, TrimmingProfile.DEFAULT, Settings.fromEnvironment());
+    }
+
+    public static KubernetesClient create(String kubeconfig, TrimmingProfile profile, Settings settings) {
+        var config = fromKubeconfig(kubeconfig);
+        config.setMaxConcurrentRequests(settings.maxConcurrentRequests());
+        config.setMaxConcurrentRequestsPerHost(settings.maxConcurrentRequests());
+        config.setHttp2Disable(settings.http2Disable());
+
+        var metrics = new RequestMetrics();
+        KubernetesClient client = new KubernetesClientBuilder()
+            .withConfig(config)
+            .withKubernetesSerialization(serialization(profile))
+            .withHttpClientBuilderConsumer(builder -> builder.addOrReplaceInterceptor(RequestMetrics.NAME, metrics))
+            .build();
+        METRICS.put(client, metrics);
+        return client;
+    }
+
+    public static RequestMetrics metrics(KubernetesClient client) {
+        return METRICS.get(client);
+    }
+}
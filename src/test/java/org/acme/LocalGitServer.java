@@ -0,0 +1,203 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KeyToPath;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.acme.ApplicationCondition.syncStatus;
+import static org.acme.EnvSettings.setting;
+
+/*
+  Git server deployed in the Kind cluster and serving over git:// a copy of the
+  argocd-example-apps repository made of the charts bundled under src/test/resources/git,
+  so that the syncs of the Applications never leave the cluster.
+
+  The offline mode is enabled with the env var ARGOCD_OFFLINE or the system property
+  argocd.offline. When enabled, the Config points by default to the local repository.
+*/
+public final class LocalGitServer {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalGitServer.class);
+
+    public static final String NAME = "local-git-server";
+    public static final String REPOSITORY = "argocd-example-apps.git";
+    public static final String REMOTE_URL = "https://github.com/argoproj/argocd-example-apps.git";
+    public static final String IMAGE = "alpine/git:2.47.2";
+    public static final String BRANCH = "master";
+    public static final int PORT = 9418;
+
+    private static final String SEED_CONFIGMAP = NAME + "-seed";
+    private static final String WARMUP_APPLICATION = NAME + "-warmup";
+    // Files of the bundled repository, relative to /git in the test resources
+    private static final List<String> SEED_FILES = List.of(
+        "helm-guestbook/Chart.yaml",
+        "helm-guestbook/values.yaml",
+        "helm-guestbook/templates/_helpers.tpl",
+        "helm-guestbook/templates/deployment.yaml",
+        "helm-guestbook/templates/service.yaml");
+
+    /*
+      The ConfigMap files are symlinks to the ..data directory of the volume, hence cp -L, and only the projected
+      paths are copied (the glob skips ..data and the timestamped directories). The working copy is committed then
+      cloned bare to be served.
+    */
+    private static final String SEED_SCRIPT = """
+        set -e
+        mkdir -p /work
+        for f in /seed/*; do cp -rL "$f" /work/; done
+        cd /work
+        git init -q -b %1$s
+        git add -A
+        git -c user.name=acme -c user.email=ci@acme.org commit -q -m "Seed the repository"
+        git clone -q --bare /work /git/%2$s
+        touch /git/%2$s/git-daemon-export-ok
+        """.formatted(BRANCH, REPOSITORY);
+
+    private LocalGitServer() {
+    }
+
+    public static boolean isOffline() {
+        return Boolean.parseBoolean(setting("ARGOCD_OFFLINE", "false"));
+    }
+
+    public static String url(String namespace) {
+        return "git://" + NAME + "." + namespace + ".svc.cluster.local:" + PORT + "/" + REPOSITORY;
+    }
+
+    // Default repository of the Config: the local one in offline mode (served from the argocd namespace), GitHub otherwise
+    public static String defaultUrl() {
+        return isOffline() ? url("argocd") : REMOTE_URL;
+    }
+
+    /*
+      Create or update the seed ConfigMap, the git daemon Deployment and its Service.
+      The caller waits for the pod labelled app.kubernetes.io/name=local-git-server to be ready.
+    */
+    public static void deploy(KubernetesClient client, String namespace) {
+        Map<String, String> labels = Map.of("app.kubernetes.io/name", NAME);
+        Map<String, String> files = new LinkedHashMap<>();
+        SEED_FILES.forEach(file -> files.put(keyOf(file), read("/git/" + file)));
+
+        // @formatter:off
+        ConfigMap seed = new ConfigMapBuilder()
+            .withNewMetadata().withName(SEED_CONFIGMAP).withNamespace(namespace).withLabels(labels).endMetadata()
+            .withData(files)
+            .build();
+
+        Deployment deployment = new DeploymentBuilder()
+            .withNewMetadata().withName(NAME).withNamespace(namespace).withLabels(labels).endMetadata()
+            .withNewSpec()
+              .withReplicas(1)
+              .withNewSelector().withMatchLabels(labels).endSelector()
+              .withNewTemplate()
+                .withNewMetadata().withLabels(labels).endMetadata()
+                .withNewSpec()
+                  .addNewInitContainer()
+                    .withName("seed")
+                    .withImage(IMAGE)
+                    .withImagePullPolicy("IfNotPresent")
+                    .withCommand("sh", "-c", SEED_SCRIPT)
+                    .addNewVolumeMount().withName("seed").withMountPath("/seed").endVolumeMount()
+                    .addNewVolumeMount().withName("git").withMountPath("/git").endVolumeMount()
+                  .endInitContainer()
+                  .addNewContainer()
+                    .withName("git-daemon")
+                    .withImage(IMAGE)
+                    .withImagePullPolicy("IfNotPresent")
+                    .withCommand("git", "daemon", "--reuseaddr", "--export-all", "--base-path=/git", "--port=" + PORT, "/git")
+                    .addNewPort().withName("git").withContainerPort(PORT).endPort()
+                    .withNewReadinessProbe()
+                      .withNewTcpSocket().withNewPort(PORT).endTcpSocket()
+                      .withPeriodSeconds(2)
+                    .endReadinessProbe()
+                    .addNewVolumeMount().withName("git").withMountPath("/git").endVolumeMount()
+                  .endContainer()
+                  .addNewVolume()
+                    .withName("seed")
+                    .withNewConfigMap()
+                      .withName(SEED_CONFIGMAP)
+                      .withItems(SEED_FILES.stream().map(f -> new KeyToPath(keyOf(f), null, f)).collect(Collectors.toList()))
+                    .endConfigMap()
+                  .endVolume()
+                  .addNewVolume().withName("git").withNewEmptyDir().endEmptyDir().endVolume()
+                .endSpec()
+              .endTemplate()
+            .endSpec()
+            .build();
+
+        Service service = new ServiceBuilder()
+            .withNewMetadata().withName(NAME).withNamespace(namespace).withLabels(labels).endMetadata()
+            .withNewSpec()
+              .withSelector(labels)
+              .addNewPort().withName("git").withPort(PORT).withNewTargetPort(PORT).endPort()
+            .endSpec()
+            .build();
+        // @formatter:on
+
+        for (HasMetadata resource : List.<HasMetadata>of(seed, deployment, service)) {
+            client.resource(resource).fieldManager(ManifestApplier.FIELD_MANAGER).forceConflicts().serverSideApply();
+        }
+        LOG.info("Local git server deployed in {}, serving {}", namespace, url(namespace));
+    }
+
+    /*
+      Make the repo-server clone the local repository and render the chart once, using a throwaway
+      Application without sync policy, so that the first synced Application does not pay for it.
+      The manifests cache of the repo-server is keyed per Application, only the clone is shared.
+    */
+    public static void prewarm(KubernetesClient client, ApplicationStatusCache applications, String namespace, long timeout, TimeUnit unit) {
+        Config config = new Config();
+        config.setApplicationName(WARMUP_APPLICATION);
+        config.setApplicationNamespace(namespace);
+        config.setDestinationNamespace(namespace);
+        config.setHelmUrl(url(namespace));
+        config.setGitRevision(BRANCH);
+        Application application = ArgocdResourceGenerator.populateApplication(config);
+        application.getSpec().setSyncPolicy(null);
+
+        long start = System.nanoTime();
+        client.resource(application).inNamespace(namespace).createOr(r -> r.update());
+        try {
+            applications.await(namespace, WARMUP_APPLICATION, syncStatus("OutOfSync").or(syncStatus("Synced")), timeout, unit).join();
+            LOG.info("Repo server warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            LOG.warn("Repo server not warmed up after {} {}, the first sync will clone the repository", timeout, unit, e);
+        } finally {
+            client.resource(application).inNamespace(namespace).delete();
+        }
+    }
+
+    // ConfigMap keys can't contain '/'
+    private static String keyOf(String file) {
+        return file.replace('/', '.');
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = LocalGitServer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
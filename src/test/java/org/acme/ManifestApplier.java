@@ -0,0 +1,309 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.GenericKubernetesResource;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Namespaced;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+  Apply a list of manifests in dependency tiers. The resources of a tier are created
+  concurrently on virtual threads, bounded by a semaphore, and the next tier only starts
+  once the previous one has completed. Installing the ArgoCD manifest then costs roughly
+  one API round trip per tier instead of one per resource.
+
+  In SERVER_SIDE_APPLY mode the install is idempotent: every resource is applied with a
+  fixed field manager and stamped with a digest of its desired state, so re-running the
+  install (or upgrading from one manifest version to another) only patches what changed.
+  The digests of the live resources are read with one list per kind of a tier before the
+  tier is applied, rather than one get per resource, except for the streamed DEFINITIONS
+  and the resources without a model class whose scope is unknown.
+*/
+public class ManifestApplier implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(ManifestApplier.class);
+
+    public static final int DEFAULT_PARALLELISM = 16;
+    public static final String FIELD_MANAGER = "acme-argocd-installer";
+    public static final String DIGEST_ANNOTATION = "acme.org/applied-digest";
+
+    public enum Mode {
+        CREATE,
+        SERVER_SIDE_APPLY
+    }
+
+    public enum Outcome {
+        CREATED,
+        APPLIED,
+        UNCHANGED,
+        CONFLICT,
+        FAILED
+    }
+
+    public enum Tier {
+        DEFINITIONS,
+        IDENTITY_AND_CONFIG,
+        SERVICES,
+        WORKLOADS
+    }
+
+    public record ApplyResult(Tier tier, String kind, String name, Outcome outcome, Duration duration, Throwable failure) {
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+
+    public record ApplyReport(List<ApplyResult> results, Map<Tier, Duration> tierDurations, Duration total) {
+        public List<ApplyResult> failures() {
+            return results.stream().filter(r -> !r.isSuccess()).collect(Collectors.toList());
+        }
+
+        public long count(Outcome outcome) {
+            return results.stream().filter(r -> r.outcome() == outcome).count();
+        }
+
+        public void log(Logger logger) {
+            logger.info("Applied {} resources in {} ms ({} changed, {} unchanged, {} conflicts, {} failed)", results.size(), total.toMillis(),
+                count(Outcome.CREATED) + count(Outcome.APPLIED), count(Outcome.UNCHANGED), count(Outcome.CONFLICT), count(Outcome.FAILED));
+            tierDurations.forEach((tier, duration) -> logger.info("  tier {} took {} ms", tier, duration.toMillis()));
+            for (ApplyResult r : results) {
+                if (r.isSuccess()) {
+                    logger.debug("  {} {}/{} {} in {} ms", r.tier(), r.kind(), r.name(), r.outcome(), r.duration().toMillis());
+                } else {
+                    logger.warn("  {} {}/{} {} after {} ms: {}", r.tier(), r.kind(), r.name(), r.outcome(), r.duration().toMillis(), r.failure().getMessage());
+                }
+            }
+        }
+    }
+
+    private final KubernetesClient client;
+    private final String namespace;
+    private final Semaphore permits;
+    private Mode mode = Mode.CREATE;
+    private boolean forceConflicts;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Digest annotations of the live resources of the kinds listed for the current tier, see liveDigests
+    private final Set<String> listedKinds = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> liveDigests = new ConcurrentHashMap<>();
+
+    public ManifestApplier(KubernetesClient client, String namespace) {
+        this(client, namespace, DEFAULT_PARALLELISM);
+    }
+
+    public ManifestApplier(KubernetesClient client, String namespace, int parallelism) {
+        this.client = client;
+        this.namespace = namespace;
+        this.permits = new Semaphore(parallelism);
+    }
+
+    public ManifestApplier withMode(Mode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    // When enabled, fields owned by another manager are taken over instead of being reported as CONFLICT
+    public ManifestApplier withForceConflicts(boolean forceConflicts) {
+        this.forceConflicts = forceConflicts;
+        return this;
+    }
+
+    public static Tier tierOf(HasMetadata resource) {
+        return switch (resource.getKind()) {
+            case "CustomResourceDefinition", "Namespace" -> Tier.DEFINITIONS;
+            case "ServiceAccount", "Role", "ClusterRole", "RoleBinding", "ClusterRoleBinding", "ConfigMap", "Secret" ->
+                Tier.IDENTITY_AND_CONFIG;
+            case "Service", "NetworkPolicy" -> Tier.SERVICES;
+            default -> Tier.WORKLOADS;
+        };
+    }
+
+    public static Map<Tier, List<HasMetadata>> groupByTier(Collection<? extends HasMetadata> items) {
+        Map<Tier, List<HasMetadata>> tiers = new EnumMap<>(Tier.class);
+        for (HasMetadata item : items) {
+            tiers.computeIfAbsent(tierOf(item), t -> new ArrayList<>()).add(item);
+        }
+        return tiers;
+    }
+
+    public ApplyReport apply(Collection<? extends HasMetadata> items) {
+        return apply(items.stream());
+    }
+
+    /*
+      The resources of the DEFINITIONS tier (e.g. the large CRDs) are submitted as soon as
+      they are read from the stream and are not retained, while the other tiers are
+      buffered and applied in order once the definitions have been applied.
+    */
+    public ApplyReport apply(Stream<? extends HasMetadata> items) {
+        long start = System.nanoTime();
+        List<ApplyResult> results = new ArrayList<>();
+        Map<Tier, Duration> tierDurations = new EnumMap<>(Tier.class);
+        listedKinds.clear();
+        liveDigests.clear();
+
+        List<Future<ApplyResult>> definitions = new ArrayList<>();
+        Map<Tier, List<HasMetadata>> tiers = new EnumMap<>(Tier.class);
+        items.forEach(item -> {
+            Tier tier = tierOf(item);
+            if (tier == Tier.DEFINITIONS) {
+                definitions.add(executor.submit(() -> applyOne(tier, item)));
+            } else {
+                tiers.computeIfAbsent(tier, t -> new ArrayList<>()).add(item);
+            }
+        });
+        if (!definitions.isEmpty()) {
+            try (var span = Timeline.span("apply.tier", Tier.DEFINITIONS.name())) {
+                definitions.forEach(f -> results.add(await(f)));
+            }
+            tierDurations.put(Tier.DEFINITIONS, Duration.ofNanos(System.nanoTime() - start));
+            LOG.info("Tier {}: {} resources applied", Tier.DEFINITIONS, definitions.size());
+        }
+
+        for (Map.Entry<Tier, List<HasMetadata>> entry : tiers.entrySet()) {
+            long tierStart = System.nanoTime();
+            List<Future<ApplyResult>> futures = new ArrayList<>(entry.getValue().size());
+            try (var span = Timeline.span("apply.tier", entry.getKey().name())) {
+                if (mode == Mode.SERVER_SIDE_APPLY) {
+                    listLiveDigests(entry.getValue());
+                }
+                for (HasMetadata item : entry.getValue()) {
+                    futures.add(executor.submit(() -> applyOne(entry.getKey(), item)));
+                }
+                for (Future<ApplyResult> future : futures) {
+                    results.add(await(future));
+                }
+            }
+            tierDurations.put(entry.getKey(), Duration.ofNanos(System.nanoTime() - tierStart));
+            LOG.info("Tier {}: {} resources applied", entry.getKey(), futures.size());
+        }
+
+        return new ApplyReport(results, tierDurations, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    protected Outcome applyResource(HasMetadata item) {
+        if (mode == Mode.CREATE) {
+            client.resource(item).inNamespace(namespace).create();
+            return Outcome.CREATED;
+        }
+
+        String digest = digestOf(item);
+        String live = listedKinds.contains(kindOf(item)) ? liveDigests.get(keyOf(item)) : liveDigestOf(item);
+        if (digest.equals(live)) {
+            return Outcome.UNCHANGED;
+        }
+
+        item.getMetadata().getAnnotations().put(DIGEST_ANNOTATION, digest);
+        var resource = client.resource(item).inNamespace(namespace).fieldManager(FIELD_MANAGER);
+        if (forceConflicts) {
+            resource.forceConflicts().serverSideApply();
+        } else {
+            resource.serverSideApply();
+        }
+        return Outcome.APPLIED;
+    }
+
+    private String liveDigestOf(HasMetadata item) {
+        HasMetadata live = client.resource(item).inNamespace(namespace).get();
+        return live != null && live.getMetadata().getAnnotations() != null ? live.getMetadata().getAnnotations().get(DIGEST_ANNOTATION) : null;
+    }
+
+    // One list per kind of the model classes: Namespaced ones in the namespace, the others cluster wide
+    private void listLiveDigests(List<HasMetadata> items) {
+        listedKinds.clear();
+        liveDigests.clear();
+        Map<String, HasMetadata> kinds = new LinkedHashMap<>();
+        items.stream().filter(item -> !(item instanceof GenericKubernetesResource)).forEach(item -> kinds.putIfAbsent(kindOf(item), item));
+        kinds.forEach((kind, item) -> {
+            var resources = client.genericKubernetesResources(item.getApiVersion(), item.getKind());
+            var list = item instanceof Namespaced ? resources.inNamespace(namespace).list() : resources.list();
+            list.getItems().forEach(live -> {
+                if (live.getMetadata().getAnnotations() != null && live.getMetadata().getAnnotations().containsKey(DIGEST_ANNOTATION)) {
+                    liveDigests.put(keyOf(live), live.getMetadata().getAnnotations().get(DIGEST_ANNOTATION));
+                }
+            });
+            listedKinds.add(kind);
+        });
+    }
+
+    private static String kindOf(HasMetadata item) {
+        return item.getApiVersion() + "/" + item.getKind();
+    }
+
+    private static String keyOf(HasMetadata item) {
+        return kindOf(item) + "/" + item.getMetadata().getName();
+    }
+
+    /*
+      The digest covers the desired state as found in the manifest, before the digest
+      annotation itself is added, so the same manifest always produces the same value.
+    */
+    String digestOf(HasMetadata item) {
+        if (item.getMetadata().getAnnotations() == null) {
+            item.getMetadata().setAnnotations(new LinkedHashMap<>());
+        }
+        item.getMetadata().getAnnotations().remove(DIGEST_ANNOTATION);
+        try {
+            byte[] json = client.getKubernetesSerialization().asJson(item).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ApplyResult applyOne(Tier tier, HasMetadata item) throws InterruptedException {
+        permits.acquire();
+        long start = System.nanoTime();
+        Timeline.Span span = Timeline.span("apply", item.getKind() + "/" + item.getMetadata().getName());
+        Outcome outcome = Outcome.FAILED;
+        try {
+            outcome = applyResource(item);
+            return new ApplyResult(tier, item.getKind(), item.getMetadata().getName(), outcome, Duration.ofNanos(System.nanoTime() - start), null);
+        } catch (KubernetesClientException e) {
+            outcome = e.getCode() == 409 && mode == Mode.SERVER_SIDE_APPLY ? Outcome.CONFLICT : Outcome.FAILED;
+            return new ApplyResult(tier, item.getKind(), item.getMetadata().getName(), outcome, Duration.ofNanos(System.nanoTime() - start), e);
+        } catch (Exception e) {
+            return new ApplyResult(tier, item.getKind(), item.getMetadata().getName(), Outcome.FAILED, Duration.ofNanos(System.nanoTime() - start), e);
+        } finally {
+            span.outcome(outcome.name()).close();
+            permits.release();
+        }
+    }
+
+    private static ApplyResult await(Future<ApplyResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while applying manifests", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected failure while applying manifests", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,99 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.acme.ManifestApplier.Outcome;
+import static org.acme.ManifestApplier.Tier;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@EnableKubernetesMockClient(crud = true)
+public class ManifestApplierTest {
+
+    static KubernetesClient mockClient;
+
+    private static ConfigMap paramsConfigMap(KubernetesClient client) {
+        return client.load(ManifestApplierTest.class.getResourceAsStream("/argocd-2.13.yml")).items().stream()
+            .filter(item -> item instanceof ConfigMap && "argocd-cmd-params-cm".equals(item.getMetadata().getName()))
+            .map(ConfigMap.class::cast)
+            .findFirst()
+            .orElseThrow();
+    }
+
+    @Test
+    public void argocd_resources_are_grouped_by_tier() {
+        try (KubernetesClient client = new KubernetesClientBuilder().build()) {
+            List<HasMetadata> items = client.load(ManifestApplierTest.class.getResourceAsStream("/argocd-2.13.yml")).items();
+
+            Map<Tier, List<HasMetadata>> tiers = ManifestApplier.groupByTier(items);
+
+            assertIterableEquals(List.of(Tier.DEFINITIONS, Tier.IDENTITY_AND_CONFIG, Tier.SERVICES, Tier.WORKLOADS), tiers.keySet());
+            assertEquals(3, tiers.get(Tier.DEFINITIONS).size());
+            assertEquals(34, tiers.get(Tier.IDENTITY_AND_CONFIG).size());
+            assertEquals(15, tiers.get(Tier.SERVICES).size());
+            assertEquals(7, tiers.get(Tier.WORKLOADS).size());
+        }
+    }
+
+    @Test
+    public void digest_is_stable_ignores_its_annotation_and_follows_the_desired_state() {
+        try (KubernetesClient client = new KubernetesClientBuilder().build();
+             var applier = new ManifestApplier(client, "argocd")) {
+            String digest = applier.digestOf(paramsConfigMap(client));
+            assertEquals(digest, applier.digestOf(paramsConfigMap(client)));
+
+            ConfigMap stamped = paramsConfigMap(client);
+            stamped.getMetadata().setAnnotations(new HashMap<>(Map.of(ManifestApplier.DIGEST_ANNOTATION, "previous")));
+            assertEquals(digest, applier.digestOf(stamped));
+
+            ConfigMap changed = paramsConfigMap(client);
+            changed.setData(Map.of("application.namespaces", "test3"));
+            assertNotEquals(digest, applier.digestOf(changed));
+        }
+    }
+
+    @Test
+    public void unchanged_resources_are_not_applied_again() {
+        try (var applier = new ManifestApplier(mockClient, "argocd").withMode(ManifestApplier.Mode.SERVER_SIDE_APPLY)) {
+            assertEquals(Outcome.APPLIED, applier.apply(List.of(paramsConfigMap(mockClient))).results().get(0).outcome());
+            assertNotNull(mockClient.configMaps().inNamespace("argocd").withName("argocd-cmd-params-cm").get()
+                .getMetadata().getAnnotations().get(ManifestApplier.DIGEST_ANNOTATION));
+
+            assertEquals(Outcome.UNCHANGED, applier.apply(List.of(paramsConfigMap(mockClient))).results().get(0).outcome());
+
+            ConfigMap changed = paramsConfigMap(mockClient);
+            changed.setData(Map.of("application.namespaces", "test3"));
+            assertEquals(Outcome.APPLIED, applier.apply(List.of(changed)).results().get(0).outcome());
+        }
+    }
+
+    @Test
+    public void conflicts_are_reported_in_server_side_apply_mode_only() {
+        KubernetesClientException conflict = new KubernetesClientException(new StatusBuilder().withCode(409).withReason("Conflict").build());
+        for (var mode : ManifestApplier.Mode.values()) {
+            try (var applier = new ManifestApplier(mockClient, "argocd") {
+                @Override
+                protected Outcome applyResource(HasMetadata item) {
+                    throw conflict;
+                }
+            }.withMode(mode)) {
+                var result = applier.apply(List.of(paramsConfigMap(mockClient))).results().get(0);
+                assertEquals(mode == ManifestApplier.Mode.SERVER_SIDE_APPLY ? Outcome.CONFLICT : Outcome.FAILED, result.outcome());
+                assertEquals(conflict, result.failure());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.acme;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/*
+  JFR event recorded for every phase of the tests measured by the Timeline, e.g. the start of the
+  Kind cluster, the apply of a resource or the wait of an Application to be synced. The events are
+  only written when a recording is running, e.g. with -XX:StartFlightRecording.
+*/
+@Name("org.acme.Phase")
+@Label("Phase")
+@Category({ "Acme", "ArgoCD CI" })
+@Description("Phase of the ArgoCD CI tests")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Name")
+    String name;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,137 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.readiness.Readiness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/*
+  Wait for several components of a namespace to become ready using one Pod informer.
+  All the targets are awaited concurrently, so the wall time is the one of the slowest
+  component and not the sum of the individual waits, and the time to ready of each
+  component is reported.
+*/
+public class ReadinessWaiter implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(ReadinessWaiter.class);
+
+    public record Target(String component, String labelKey, String labelValue, String podName) {
+        public static Target byLabel(String key, String value) {
+            return new Target(value, key, value, null);
+        }
+
+        public static Target byName(String podName) {
+            return new Target(podName, null, null, podName);
+        }
+
+        boolean matches(Pod pod) {
+            if (podName != null) {
+                return podName.equals(pod.getMetadata().getName());
+            }
+            var labels = pod.getMetadata().getLabels();
+            return labels != null && labelValue.equals(labels.get(labelKey));
+        }
+    }
+
+    private final class Wait {
+        private final long start = System.nanoTime();
+        private final Set<Target> remaining;
+        private final Map<String, Duration> readyTimes = new LinkedHashMap<>();
+        private final Map<Target, Timeline.Span> spans = new LinkedHashMap<>();
+        private final CompletableFuture<Map<String, Duration>> future = new CompletableFuture<>();
+
+        private Wait(Collection<Target> targets) {
+            this.remaining = new LinkedHashSet<>(targets);
+            targets.forEach(target -> spans.put(target, Timeline.span("readiness", namespace + "/" + target.component())));
+        }
+
+        private boolean evaluate() {
+            remaining.removeIf(target -> {
+                if (!isReady(target)) {
+                    return false;
+                }
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                readyTimes.put(target.component(), elapsed);
+                spans.get(target).outcome("ready").close();
+                LOG.info("Pod: {} ready in {} after {} ms", target.component(), namespace, elapsed.toMillis());
+                return true;
+            });
+            if (remaining.isEmpty()) {
+                future.complete(readyTimes);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final String namespace;
+    private final SharedIndexInformer<Pod> informer;
+    private final List<Wait> waits = new CopyOnWriteArrayList<>();
+
+    public ReadinessWaiter(KubernetesClient client, String namespace) {
+        this.namespace = namespace;
+        // Completed pods can never become ready: filter them out on the API server side
+        this.informer = client.pods().inNamespace(namespace).withoutField("status.phase", "Succeeded").inform(new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(Pod pod) {
+                evaluate();
+            }
+
+            @Override
+            public void onUpdate(Pod oldPod, Pod newPod) {
+                evaluate();
+            }
+
+            @Override
+            public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {
+                evaluate();
+            }
+        });
+    }
+
+    /*
+      Returns a future completed with the time to ready of each component once all the
+      targets are ready. A target is ready when at least one pod matches it and all the
+      matching pods, which are not being deleted, are ready.
+    */
+    public CompletableFuture<Map<String, Duration>> await(Collection<Target> targets) {
+        Wait wait = new Wait(targets);
+        waits.add(wait);
+        evaluate();
+        return wait.future;
+    }
+
+    private synchronized void evaluate() {
+        waits.removeIf(Wait::evaluate);
+    }
+
+    private boolean isReady(Target target) {
+        List<Pod> pods = informer.getStore().list().stream()
+            .filter(target::matches)
+            .filter(p -> p.getMetadata().getDeletionTimestamp() == null)
+            .collect(Collectors.toList());
+        return !pods.isEmpty() && pods.stream().allMatch(Readiness::isPodReady);
+    }
+
+    @Override
+    public void close() {
+        informer.close();
+        waits.forEach(w -> {
+            w.spans.values().forEach(span -> span.outcome("not ready").close());
+            w.future.cancel(false);
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.acme.ReadinessWaiter.Target.byLabel;
+import static org.acme.ReadinessWaiter.Target.byName;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+public class ReadinessWaiterTest {
+
+    static KubernetesClient mockClient;
+
+    private static Pod pod(String name, String component, boolean ready) {
+        return new PodBuilder()
+            .withNewMetadata().withName(name).addToLabels("app.kubernetes.io/name", component).endMetadata()
+            .withNewStatus()
+              .withPhase("Running")
+              .addNewCondition().withType("Ready").withStatus(ready ? "True" : "False").endCondition()
+            .endStatus()
+            .build();
+    }
+
+    private static void apply(KubernetesClient client, String namespace, Pod pod) {
+        // Set the status through its subresource, the crud mock server may drop it on create
+        var pods = client.pods().inNamespace(namespace);
+        if (pods.withName(pod.getMetadata().getName()).get() == null) {
+            pods.resource(pod).create();
+        }
+        pods.resource(pod).updateStatus();
+    }
+
+    @Test
+    public void targets_match_pods_by_label_or_by_name() {
+        Pod redis = pod("argocd-redis-5b6967fdfc-x2x5l", "argocd-redis", true);
+        Pod controller = pod("argocd-application-controller-0", "argocd-application-controller", true);
+
+        var redisTarget = byLabel("app.kubernetes.io/name", "argocd-redis");
+        assertEquals("argocd-redis", redisTarget.component());
+        assertTrue(redisTarget.matches(redis));
+        assertFalse(redisTarget.matches(controller));
+        assertFalse(redisTarget.matches(new PodBuilder().withNewMetadata().withName("unlabelled").endMetadata().build()));
+
+        var controllerTarget = byName("argocd-application-controller-0");
+        assertEquals("argocd-application-controller-0", controllerTarget.component());
+        assertTrue(controllerTarget.matches(controller));
+        assertFalse(controllerTarget.matches(redis));
+        assertFalse(byName("argocd-application-controller-1").matches(controller));
+    }
+
+    @Test
+    public void one_future_completes_once_all_the_targets_are_ready() throws Exception {
+        String namespace = "readiness";
+        apply(mockClient, namespace, pod("argocd-server-6d8f7c9b4-abcde", "argocd-server", true));
+        apply(mockClient, namespace, pod("argocd-redis-5b6967fdfc-x2x5l", "argocd-redis", false));
+
+        try (var waiter = new ReadinessWaiter(mockClient, namespace)) {
+            CompletableFuture<Map<String, Duration>> future = waiter.await(List.of(
+                byLabel("app.kubernetes.io/name", "argocd-server"),
+                byLabel("app.kubernetes.io/name", "argocd-redis"),
+                byName("argocd-server-6d8f7c9b4-abcde")));
+
+            TimeUnit.MILLISECONDS.sleep(500);
+            assertFalse(future.isDone(), "argocd-redis is not ready yet");
+
+            apply(mockClient, namespace, pod("argocd-redis-5b6967fdfc-x2x5l", "argocd-redis", true));
+
+            Map<String, Duration> readyTimes = future.get(10, TimeUnit.SECONDS);
+            assertEquals(Set.of("argocd-server", "argocd-redis", "argocd-server-6d8f7c9b4-abcde"), readyTimes.keySet());
+            // Each component reports its own time to ready
+            assertTrue(readyTimes.get("argocd-redis").compareTo(readyTimes.get("argocd-server")) > 0);
+            assertTrue(readyTimes.get("argocd-redis").toMillis() >= 500);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.acme;
+
+import io.fabric8.kubernetes.client.http.AsyncBody;
+import io.fabric8.kubernetes.client.http.BasicBuilder;
+import io.fabric8.kubernetes.client.http.HttpRequest;
+import io.fabric8.kubernetes.client.http.HttpResponse;
+import io.fabric8.kubernetes.client.http.Interceptor;
+import org.slf4j.Logger;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+  HTTP interceptor counting the requests sent to the API server and recording their
+  latency, until the response headers are received, in a histogram per verb and resource.
+  The start times stay on the client side, in an identity map keyed by the URI of the request:
+  the client rebuilds the HttpRequest after every interceptor but keeps its URI instance.
+  The watches opened by the informers are not recorded: they last as long as the informer and
+  after() is not called for their upgrades, so their start times would never be removed.
+*/
+public class RequestMetrics implements Interceptor {
+    public static final String NAME = "acme-request-metrics";
+
+    // Upper bounds, in milliseconds, of the histogram buckets. The last bucket is unbounded
+    private static final long[] BOUNDS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    public static final class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+
+        void record(long nanos, boolean error) {
+            count.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            long millis = nanos / 1_000_000;
+            int bucket = 0;
+            while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public double meanMillis() {
+            long n = count();
+            return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+        }
+
+        // Upper bound of the bucket holding the given percentile, -1 when above the last bound
+        public long percentileMillis(double percentile) {
+            long target = (long) Math.ceil(count() * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return i < BOUNDS.length ? BOUNDS[i] : -1;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Map<URI, Long> starts = Collections.synchronizedMap(new IdentityHashMap<>());
+    @Override
+    public void before(BasicBuilder builder, HttpRequest request, RequestTags tags) {
+        if (!isWatch(request)) {
+            starts.put(request.uri(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void after(HttpRequest request, HttpResponse<?> response, AsyncBody.Consumer<List<ByteBuffer>> consumer) {
+        record(request, !response.isSuccessful());
+    }
+
+    @Override
+    public void afterConnectionFailure(HttpRequest request, Throwable failure) {
+        record(request, true);
+    }
+
+    public Map<String, Stats> snapshot() {
+        return new TreeMap<>(stats);
+    }
+
+    public void log(Logger logger) {
+        logger.info("API server requests: verb resource -> count, errors, mean, p50, p99 (ms)");
+        snapshot().forEach((key, s) -> logger.info("  {} -> {}, {}, {}, {}, {}", key, s.count(), s.errors(),
+            String.format("%.1f", s.meanMillis()), bound(s.percentileMillis(50)), bound(s.percentileMillis(99))));
+    }
+
+    private static String bound(long millis) {
+        return millis < 0 ? ">" + BOUNDS[BOUNDS.length - 1] : "<=" + millis;
+    }
+
+    private void record(HttpRequest request, boolean error) {
+        Long start = starts.remove(request.uri());
+        if (start == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        stats.computeIfAbsent(verbOf(request) + " " + resourceOf(request.uri()), k -> new Stats()).record(nanos, error);
+    }
+
+    static String verbOf(HttpRequest request) {
+        return isWatch(request) ? "WATCH" : request.method();
+    }
+
+    private static boolean isWatch(HttpRequest request) {
+        String query = request.uri().getQuery();
+        return query != null && query.contains("watch=true");
+    }
+
+    // e.g. /api/v1/namespaces/argocd/pods/name -> pods, /apis/argoproj.io/v1alpha1/applications -> applications
+    static String resourceOf(URI uri) {
+        String[] segments = uri.getPath().split("/");
+        if (segments.length < 2 || !(segments[1].equals("api") || segments[1].equals("apis"))) {
+            return uri.getPath();
+        }
+        int index = segments[1].equals("api") ? 3 : 4;
+        if (segments.length > index + 2 && "namespaces".equals(segments[index])) {
+            index += 2;
+        }
+        return index < segments.length ? segments[index] : "discovery";
+    }
+}
@@ -0,0 +1,21 @@
+package org.acme;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestMetricsTest {
+
+    @Test
+    public void resource_is_extracted_from_the_request_path() {
+        assertEquals("pods", RequestMetrics.resourceOf(URI.create("https://localhost:6443/api/v1/namespaces/argocd/pods/argocd-server")));
+        assertEquals("pods", RequestMetrics.resourceOf(URI.create("https://localhost:6443/api/v1/namespaces/argocd/pods?watch=true")));
+        assertEquals("namespaces", RequestMetrics.resourceOf(URI.create("https://localhost:6443/api/v1/namespaces/argocd")));
+        assertEquals("nodes", RequestMetrics.resourceOf(URI.create("https://localhost:6443/api/v1/nodes")));
+        assertEquals("applications", RequestMetrics.resourceOf(URI.create("https://localhost:6443/apis/argoproj.io/v1alpha1/namespaces/test3/applications/test-3")));
+        assertEquals("statefulsets", RequestMetrics.resourceOf(URI.create("https://localhost:6443/apis/apps/v1/namespaces/argocd/statefulsets/argocd-application-controller")));
+        assertEquals("discovery", RequestMetrics.resourceOf(URI.create("https://localhost:6443/apis/apps/v1")));
+    }
+}
@@ -0,0 +1,18 @@
+package org.acme;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+  Declare the cluster capability needed by a test class extending BaseContainer, so that the
+  cheapest cluster flavor providing it is used. The classes without it get WORKLOADS.
+*/
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface RequiresCluster {
+    ClusterCapability value();
+}
@@ -0,0 +1,181 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.quarkiverse.argocd.v1alpha1.AppProject;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/*
+  Run ArgoCD scenarios concurrently against the same ArgoCD installation. Every scenario
+  gets its own namespace, Application name and optionally AppProject name, derived from
+  the scenario name and a run id, and is torn down once completed: its namespace is
+  deleted and its deletion awaited, so that the next run starts from a clean cluster.
+
+  The namespaces of the scenarios whose Application lives in their own namespace are
+  passed to the applicationNamespaces callback before any scenario starts, so that
+  ArgoCD is reconfigured once for all of them.
+*/
+public class ScenarioRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(ScenarioRunner.class);
+
+    @FunctionalInterface
+    public interface Scenario {
+        void run(Config config) throws Exception;
+    }
+
+    public record ScenarioDefinition(String name, boolean ownProject, boolean applicationInOwnNamespace, Scenario scenario) {
+    }
+
+    public record ScenarioResult(String name, String namespace, Duration duration, Throwable failure) {
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+
+    public record Report(List<ScenarioResult> results, Duration total) {
+        public List<ScenarioResult> failures() {
+            return results.stream().filter(r -> !r.isSuccess()).collect(Collectors.toList());
+        }
+
+        public void log(Logger logger) {
+            logger.info("{} scenarios completed in {} ms ({} failed)", results.size(), total.toMillis(), failures().size());
+            for (ScenarioResult r : results) {
+                if (r.isSuccess()) {
+                    logger.info("  {} ({}) succeeded in {} ms", r.name(), r.namespace(), r.duration().toMillis());
+                } else {
+                    logger.error("  {} ({}) failed after {} ms", r.name(), r.namespace(), r.duration().toMillis(), r.failure());
+                }
+            }
+        }
+    }
+
+    private final KubernetesClient client;
+    private final String argocdNamespace;
+    private final String runId;
+    private final List<ScenarioDefinition> definitions = new ArrayList<>();
+    private Consumer<Set<String>> applicationNamespaces = namespaces -> {
+    };
+    private Duration tearDownTimeout = Duration.ofMinutes(2);
+
+    public ScenarioRunner(KubernetesClient client, String argocdNamespace) {
+        this(client, argocdNamespace, Long.toString(System.currentTimeMillis() % 1_000_000, 36));
+    }
+
+    public ScenarioRunner(KubernetesClient client, String argocdNamespace, String runId) {
+        this.client = client;
+        this.argocdNamespace = argocdNamespace;
+        this.runId = runId;
+    }
+
+    public ScenarioRunner scenario(String name, boolean ownProject, boolean applicationInOwnNamespace, Scenario scenario) {
+        definitions.add(new ScenarioDefinition(name, ownProject, applicationInOwnNamespace, scenario));
+        return this;
+    }
+
+    public ScenarioRunner onApplicationNamespaces(Consumer<Set<String>> applicationNamespaces) {
+        this.applicationNamespaces = applicationNamespaces;
+        return this;
+    }
+
+    public ScenarioRunner tearDownTimeout(long timeout, TimeUnit unit) {
+        this.tearDownTimeout = Duration.ofNanos(unit.toNanos(timeout));
+        return this;
+    }
+
+    public Config configOf(ScenarioDefinition definition) {
+        String namespace = definition.name() + "-" + runId;
+        Config config = new Config();
+        // Suffixed with the run id too: the Applications of all the runs may live in the ArgoCD namespace
+        config.setApplicationName(namespace);
+        config.setDestinationNamespace(namespace);
+        config.setApplicationNamespace(definition.applicationInOwnNamespace() ? namespace : argocdNamespace);
+        config.setGitUrl(config.getHelmUrl());
+        config.setGitRevision("master");
+        if (definition.ownProject()) {
+            config.setProjectName(namespace);
+        }
+        if (definition.applicationInOwnNamespace()) {
+            // Otherwise: application 'x' in namespace 'y' is not permitted to use project 'z'
+            config.setSourceNamespaces(namespace);
+        }
+        return config;
+    }
+
+    public Report run() {
+        long start = System.nanoTime();
+
+        Set<String> ownNamespaces = definitions.stream()
+            .filter(ScenarioDefinition::applicationInOwnNamespace)
+            .map(d -> configOf(d).getApplicationNamespace())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        ownNamespaces.forEach(ns -> client.namespaces().resource(new NamespaceBuilder().withNewMetadata().withName(ns).endMetadata().build())
+            .fieldManager(ManifestApplier.FIELD_MANAGER)
+            .serverSideApply());
+        if (!ownNamespaces.isEmpty()) {
+            applicationNamespaces.accept(ownNamespaces);
+        }
+
+        List<ScenarioResult> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ScenarioResult>> futures = definitions.stream()
+                .map(d -> executor.submit(() -> runOne(d)))
+                .collect(Collectors.toList());
+            for (Future<ScenarioResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the scenarios", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected failure while running the scenarios", e.getCause());
+        }
+        return new Report(results, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private ScenarioResult runOne(ScenarioDefinition definition) {
+        Config config = configOf(definition);
+        Thread.currentThread().setName("scenario-" + definition.name());
+        LOG.info(">>> Running the scenario {} in the namespace {}", definition.name(), config.getDestinationNamespace());
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            definition.scenario().run(config);
+        } catch (Throwable t) {
+            failure = t;
+        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        try {
+            tearDown(definition, config);
+        } catch (Exception e) {
+            LOG.warn("Unable to tear down the scenario {}", definition.name(), e);
+        }
+        return new ScenarioResult(definition.name(), config.getDestinationNamespace(), duration, failure);
+    }
+
+    private void tearDown(ScenarioDefinition definition, Config config) {
+        client.resources(Application.class).inNamespace(config.getApplicationNamespace()).withName(config.getApplicationName()).delete();
+        if (definition.ownProject()) {
+            client.resources(AppProject.class).inNamespace(config.getProjectNamespace()).withName(config.getProjectName()).delete();
+        }
+        client.namespaces().withName(config.getDestinationNamespace()).delete();
+        client.namespaces().withName(config.getDestinationNamespace())
+            .waitUntilCondition(Objects::isNull, tearDownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        LOG.info("Scenario {} torn down", definition.name());
+    }
+}
@@ -0,0 +1,162 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+  Read a multi-document YAML manifest one document at a time. The apiVersion, kind and
+  metadata.name of a document are extracted from its raw lines, and only the documents
+  accepted by the filter are deserialized: a selected document, e.g. a large ArgoCD CRD,
+  is fully deserialized, but the documents filtered out are never turned into objects and
+  only one document is held in memory at a time. When the name can't be found in the raw
+  lines (e.g. flow style metadata), the document is deserialized to evaluate the filter.
+*/
+public class StreamingManifestLoader {
+
+    public record Header(String apiVersion, String kind, String name) {
+    }
+
+    public static Stream<HasMetadata> load(KubernetesSerialization serialization, InputStream in) {
+        return load(serialization, in, h -> true);
+    }
+
+    public static Stream<HasMetadata> load(KubernetesSerialization serialization, InputStream in, Predicate<Header> filter) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Iterator<HasMetadata> iterator = new DocumentIterator(serialization, reader, filter);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    private static final class DocumentIterator implements Iterator<HasMetadata> {
+        private final KubernetesSerialization serialization;
+        private final BufferedReader reader;
+        private final Predicate<Header> filter;
+        private HasMetadata next;
+        private boolean eof;
+
+        private DocumentIterator(KubernetesSerialization serialization, BufferedReader reader, Predicate<Header> filter) {
+            this.serialization = serialization;
+            this.reader = reader;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !eof) {
+                next = readDocument();
+            }
+            return next != null;
+        }
+
+        @Override
+        public HasMetadata next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HasMetadata result = next;
+            next = null;
+            return result;
+        }
+
+        // Returns the next accepted document or null when the document was empty or filtered out
+        private HasMetadata readDocument() {
+            StringBuilder document = new StringBuilder();
+            String apiVersion = null;
+            String kind = null;
+            String name = null;
+            boolean inMetadata = false;
+            // Indentation of the keys of metadata, given by its first key
+            int metadataIndent = -1;
+            boolean hasContent = false;
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("---")) {
+                        break;
+                    }
+                    document.append(line).append('\n');
+                    if (line.isBlank() || line.startsWith("#")) {
+                        continue;
+                    }
+                    hasContent = true;
+                    if (!Character.isWhitespace(line.charAt(0))) {
+                        inMetadata = line.startsWith("metadata:");
+                        metadataIndent = -1;
+                        if (line.startsWith("apiVersion:")) {
+                            apiVersion = valueOf(line);
+                        } else if (line.startsWith("kind:")) {
+                            kind = valueOf(line);
+                        }
+                    } else if (inMetadata && name == null) {
+                        int indent = indentOf(line);
+                        if (metadataIndent < 0) {
+                            metadataIndent = indent;
+                        }
+                        if (indent == metadataIndent && line.startsWith("name:", indent)) {
+                            name = valueOf(line);
+                        }
+                    }
+                }
+                if (line == null) {
+                    eof = true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (!hasContent) {
+                return null;
+            }
+            if (name == null) {
+                HasMetadata item;
+                try (var span = Timeline.span("manifest", kind + "/<unnamed>")) {
+                    item = serialization.unmarshal(document.toString());
+                }
+                String itemName = item.getMetadata() != null ? item.getMetadata().getName() : null;
+                return filter.test(new Header(item.getApiVersion(), item.getKind(), itemName)) ? item : null;
+            }
+            if (!filter.test(new Header(apiVersion, kind, name))) {
+                return null;
+            }
+            try (var span = Timeline.span("manifest", kind + "/" + name)) {
+                return serialization.unmarshal(document.toString());
+            }
+        }
+
+        private static int indentOf(String line) {
+            int indent = 0;
+            while (indent < line.length() && line.charAt(indent) == ' ') {
+                indent++;
+            }
+            return indent;
+        }
+
+        private static String valueOf(String line) {
+            String value = line.substring(line.indexOf(':') + 1).trim();
+            if (value.length() > 1 && (value.startsWith("\"") || value.startsWith("'"))) {
+                value = value.substring(1, value.length() - 1);
+            }
+            return value;
+        }
+    }
+}
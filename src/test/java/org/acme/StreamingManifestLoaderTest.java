@@ -0,0 +1,100 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StreamingManifestLoaderTest {
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingManifestLoaderTest.class);
+
+    private static final List<String> EXCLUDED_DEPLOYMENTS = List.of("argocd-dex-server", "argocd-notifications-controller");
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/argocd-2.13.yml", "/argocd-2.14.yaml" })
+    public void streaming_loader_filters_like_the_list_loader(String manifest) {
+        try (KubernetesClient client = new KubernetesClientBuilder().build()) {
+            Supplier<List<String>> listLoader = () -> client.load(getClass().getResourceAsStream(manifest)).items().stream()
+                .filter(r -> !(r instanceof Deployment && EXCLUDED_DEPLOYMENTS.contains(r.getMetadata().getName())))
+                .map(StreamingManifestLoaderTest::keyOf)
+                .collect(Collectors.toList());
+            Supplier<List<String>> streamingLoader = () -> {
+                try (var items = StreamingManifestLoader.load(client.getKubernetesSerialization(), getClass().getResourceAsStream(manifest),
+                    h -> !("Deployment".equals(h.kind()) && EXCLUDED_DEPLOYMENTS.contains(h.name())))) {
+                    return items.map(StreamingManifestLoaderTest::keyOf).collect(Collectors.toList());
+                }
+            };
+
+            List<String> expected = measure(manifest + " - list loader", listLoader);
+            List<String> actual = measure(manifest + " - streaming loader", streamingLoader);
+
+            assertEquals(57, actual.size());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void names_are_found_whatever_the_indentation_of_metadata() {
+        String manifest = """
+            apiVersion: v1
+            kind: ConfigMap
+            metadata:
+                labels:
+                    app.kubernetes.io/name: argocd-cm
+                name: argocd-cm
+            ---
+            apiVersion: v1
+            kind: ConfigMap
+            metadata: {name: argocd-rbac-cm}
+            ---
+            apiVersion: v1
+            kind: ConfigMap
+            metadata:
+              name: argocd-cmd-params-cm
+            """;
+        try (KubernetesClient client = new KubernetesClientBuilder().build();
+             var items = StreamingManifestLoader.load(client.getKubernetesSerialization(),
+                 new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)), h -> !"argocd-cmd-params-cm".equals(h.name()))) {
+            assertEquals(List.of("ConfigMap/argocd-cm", "ConfigMap/argocd-rbac-cm"),
+                items.map(StreamingManifestLoaderTest::keyOf).collect(Collectors.toList()));
+        }
+    }
+
+    private static String keyOf(HasMetadata r) {
+        return r.getKind() + "/" + r.getMetadata().getName();
+    }
+
+    // Log the parse time and the peak heap used while loading the manifest
+    private static <T> T measure(String label, Supplier<T> loader) {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(p -> p.getType() == MemoryType.HEAP)
+            .collect(Collectors.toList());
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long baseline = heapPools.stream().mapToLong(p -> p.getUsage().getUsed()).sum();
+
+        long start = System.nanoTime();
+        T result = loader.get();
+        long elapsed = System.nanoTime() - start;
+
+        long peak = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+        LOG.info("{}: parsed in {} ms, peak heap +{} KB", label, elapsed / 1_000_000, Math.max(0, peak - baseline) / 1024);
+        return result;
+    }
+}
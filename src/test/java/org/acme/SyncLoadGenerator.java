@@ -0,0 +1,291 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.ExecWatch;
+import io.quarkiverse.argocd.v1alpha1.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.acme.ApplicationCondition.healthy;
+import static org.acme.ApplicationCondition.synced;
+import static org.acme.ArgocdResourceGenerator.ApplicationParams;
+import static org.acme.ArgocdResourceGenerator.ResourceTemplate;
+import static org.acme.ArgocdResourceGenerator.populateApplications;
+import static org.acme.EnvSettings.setting;
+
+/*
+  Capacity benchmark of an ArgoCD installation: create N Applications at a fixed rate and
+  measure, for each of them, the time from its creation to Healthy and to Synced as seen
+  by the ApplicationStatusCache. The Applications are generated with the batch API of
+  ArgocdResourceGenerator, live in the argocd namespace and all deploy the helm-guestbook
+  chart (served by the LocalGitServer in offline mode) into the same destination namespace.
+
+  The resource use of the application controller is sampled from its cgroup while the
+  load runs, and the report gives the latency percentiles, the throughput curve (Synced
+  Applications per interval) and the controller CPU and memory.
+*/
+public class SyncLoadGenerator {
+    private static final Logger LOG = LoggerFactory.getLogger(SyncLoadGenerator.class);
+
+    public static final String DESTINATION_NAMESPACE = "sync-load";
+    public static final Duration SAMPLE_INTERVAL = Duration.ofSeconds(5);
+
+    // cgroup v2 first, v1 otherwise: CPU time in micro (v2) or nano (v1) seconds, then the memory in bytes
+    private static final String CGROUP_STATS = """
+        if [ -f /sys/fs/cgroup/cpu.stat ]; then
+          echo "cpu_usec $(sed -n 's/^usage_usec //p' /sys/fs/cgroup/cpu.stat)"
+          echo "memory $(cat /sys/fs/cgroup/memory.current)"
+        else
+          echo "cpu_usec $(( $(cat /sys/fs/cgroup/cpuacct/cpuacct.usage) / 1000 ))"
+          echo "memory $(cat /sys/fs/cgroup/memory/memory.usage_in_bytes)"
+        fi
+        """;
+
+    public record Settings(int count, double ratePerSecond, String namePrefix, Duration timeout) {
+        public Settings {
+            // Also rejects NaN, which would otherwise give a creation interval of 0
+            if (!(ratePerSecond > 0) || Double.isInfinite(ratePerSecond)) {
+                throw new IllegalArgumentException("The rate must be a positive number of Applications per second, got " + ratePerSecond);
+            }
+        }
+
+        public static Settings fromEnvironment() {
+            return new Settings(
+                Integer.parseInt(setting("ARGOCD_LOAD_COUNT", "50")),
+                Double.parseDouble(setting("ARGOCD_LOAD_RATE", "2")),
+                setting("ARGOCD_LOAD_PREFIX", "load"),
+                Duration.ofSeconds(Long.parseLong(setting("ARGOCD_LOAD_TIMEOUT", "900"))));
+        }
+    }
+
+    public record Sample(long elapsedMillis, String pod, double cpuCores, long memoryBytes) {
+    }
+
+    public record LoadReport(Settings settings, Duration createDuration, Duration total, List<Long> healthyMillis, List<Long> syncedMillis,
+                             int createFailures, int timeouts, Map<Long, Integer> syncedPerInterval, List<Sample> controller) {
+
+        public static long percentile(List<Long> values, double percentile) {
+            if (values.isEmpty()) {
+                return -1;
+            }
+            List<Long> sorted = values.stream().sorted().toList();
+            int index = (int) Math.min(sorted.size() - 1, Math.ceil(sorted.size() * percentile / 100.0) - 1);
+            return sorted.get(Math.max(0, index));
+        }
+
+        // Synced Applications per minute, from the first creation to the last Synced
+        public double throughputPerMinute() {
+            return total.isZero() ? 0 : syncedMillis.size() * 60_000.0 / total.toMillis();
+        }
+
+        public void log(Logger logger) {
+            logger.info("{} Applications created at {}/s in {} ms ({} failed to be created), {} synced in {} ms ({} timed out): {} Applications/min",
+                settings.count(), settings.ratePerSecond(), createDuration.toMillis(), createFailures, syncedMillis.size(), total.toMillis(),
+                timeouts, String.format("%.1f", throughputPerMinute()));
+            logger.info("  create -> Healthy: p50={} p90={} p99={} max={} ms", percentile(healthyMillis, 50),
+                percentile(healthyMillis, 90), percentile(healthyMillis, 99), percentile(healthyMillis, 100));
+            logger.info("  create -> Synced:  p50={} p90={} p99={} max={} ms", percentile(syncedMillis, 50),
+                percentile(syncedMillis, 90), percentile(syncedMillis, 99), percentile(syncedMillis, 100));
+            syncedPerInterval.forEach((second, count) -> logger.info("  [{}s] {} synced", second, count));
+            controller.stream().mapToDouble(Sample::cpuCores).max().ifPresent(cpu -> logger.info("  controller peak: {} cores, {} MB",
+                String.format("%.2f", cpu), controller.stream().mapToLong(Sample::memoryBytes).max().orElse(0) / (1024 * 1024)));
+        }
+
+        public void write(Path file) {
+            try {
+                Files.createDirectories(file.getParent());
+                new ObjectMapper().findAndRegisterModules().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+                LOG.info("Sync load report written to {}", file);
+            } catch (IOException e) {
+                LOG.warn("Unable to write the sync load report to {}", file, e);
+            }
+        }
+    }
+
+    private final KubernetesClient client;
+    private final ApplicationStatusCache applications;
+    private final String namespace;
+    private final String controllerLabel;
+    private List<String> destinationServers = List.of();
+
+    public SyncLoadGenerator(KubernetesClient client, ApplicationStatusCache applications, String namespace) {
+        this(client, applications, namespace, "argocd-application-controller");
+    }
+
+    public SyncLoadGenerator(KubernetesClient client, ApplicationStatusCache applications, String namespace, String controllerLabel) {
+        this.client = client;
+        this.applications = applications;
+        this.namespace = namespace;
+        this.controllerLabel = controllerLabel;
+    }
+
+    // Spread the Applications round-robin across these clusters, e.g. the aliases of ControllerSharding
+    public SyncLoadGenerator withDestinationServers(List<String> destinationServers) {
+        this.destinationServers = destinationServers;
+        return this;
+    }
+
+    public LoadReport run(Settings settings) {
+        if (!LocalGitServer.isOffline()) {
+            LOG.warn("The Applications are synced from {}: the results include the latency of GitHub", LocalGitServer.REMOTE_URL);
+        }
+        Config config = new Config();
+        config.setApplicationName(settings.namePrefix());
+        config.setApplicationNamespace(namespace);
+        config.setDestinationNamespace(DESTINATION_NAMESPACE);
+        config.setGitRevision(LocalGitServer.BRANCH);
+        var template = ResourceTemplate.of(config);
+        List<Application> generated = populateApplications(template, IntStream.range(0, settings.count())
+            .mapToObj(i -> new ApplicationParams(settings.namePrefix() + "-" + i, DESTINATION_NAMESPACE, config.getGitRevision(), config.getHelmPath())))
+            .toList();
+
+        List<Long> healthyMillis = new CopyOnWriteArrayList<>();
+        List<Long> syncedMillis = new CopyOnWriteArrayList<>();
+        Map<Long, Integer> syncedPerInterval = new ConcurrentHashMap<>();
+        List<Sample> samples = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        List<CompletableFuture<Void>> creates = new ArrayList<>();
+        List<CompletableFuture<Application>> waits = new CopyOnWriteArrayList<>();
+
+        long start = System.nanoTime();
+        long interval = (long) (1_000_000_000L / settings.ratePerSecond());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(new ControllerSampler(start, samples), 0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        long createDuration;
+        try (ExecutorService creators = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < generated.size(); i++) {
+                Application application = generated.get(i);
+                // The Applications live in the argocd namespace while the batch API uses the destination namespace
+                application.getMetadata().setNamespace(namespace);
+                if (!destinationServers.isEmpty()) {
+                    application.getSpec().getDestination().setServer(destinationServers.get(i % destinationServers.size()));
+                }
+                sleepUntil(start + i * interval);
+                CompletableFuture<Void> created = CompletableFuture.runAsync(() -> client.resource(application).create(), creators);
+                creates.add(created);
+                futures.add(created.thenCompose(v -> track(application, waits, healthyMillis, syncedMillis, syncedPerInterval, start)));
+            }
+            createDuration = System.nanoTime() - start;
+            try {
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                LOG.warn("Not all the Applications were synced after {}", settings.timeout());
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+        long total = System.nanoTime() - start;
+        // A rejected create (e.g. 409 or admission webhook) is not a sync timeout
+        int createFailures = (int) creates.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        creates.stream().filter(CompletableFuture::isCompletedExceptionally).findFirst()
+            .ifPresent(f -> LOG.warn("{} Applications failed to be created, first failure", createFailures, f.exceptionNow()));
+        int timeouts = (int) futures.stream().filter(f -> !f.isDone() || f.isCompletedExceptionally()).count() - createFailures;
+        // Release the waits of the Applications which never became Healthy or Synced
+        waits.forEach(f -> f.cancel(false));
+        return new LoadReport(settings, Duration.ofNanos(createDuration), Duration.ofNanos(total), List.copyOf(healthyMillis),
+            List.copyOf(syncedMillis), createFailures, timeouts, new TreeMap<>(syncedPerInterval), List.copyOf(samples));
+    }
+
+    // Delete the generated Applications and what they deployed
+    public void cleanup(Settings settings) {
+        IntStream.range(0, settings.count()).forEach(i -> client.resources(Application.class).inNamespace(namespace)
+            .withName(settings.namePrefix() + "-" + i).delete());
+        client.namespaces().withName(DESTINATION_NAMESPACE).delete();
+    }
+
+    private CompletableFuture<?> track(Application application, List<CompletableFuture<Application>> waits, List<Long> healthyMillis,
+                                       List<Long> syncedMillis, Map<Long, Integer> syncedPerInterval, long start) {
+        long created = System.nanoTime();
+        String name = application.getMetadata().getName();
+        var healthyWait = applications.await(namespace, name, healthy());
+        var syncedWait = applications.await(namespace, name, synced());
+        waits.add(healthyWait);
+        waits.add(syncedWait);
+        var healthy = healthyWait
+            .thenRun(() -> healthyMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - created)));
+        var synced = syncedWait
+            .thenRun(() -> {
+                long now = System.nanoTime();
+                syncedMillis.add(TimeUnit.NANOSECONDS.toMillis(now - created));
+                long bucket = TimeUnit.NANOSECONDS.toSeconds(now - start) / SAMPLE_INTERVAL.toSeconds() * SAMPLE_INTERVAL.toSeconds();
+                syncedPerInterval.merge(bucket, 1, Integer::sum);
+            });
+        return CompletableFuture.allOf(healthy, synced);
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long wait = nanoTime - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating the load", e);
+            }
+        }
+    }
+
+    // Read the cgroup counters of every controller pod and derive the CPU used since the previous sample
+    private final class ControllerSampler implements Runnable {
+        private final long start;
+        private final List<Sample> samples;
+        private final Map<String, long[]> previous = new ConcurrentHashMap<>();
+
+        private ControllerSampler(long start, List<Sample> samples) {
+            this.start = start;
+            this.samples = samples;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (var pod : client.pods().inNamespace(namespace).withLabel("app.kubernetes.io/name", controllerLabel).list().getItems()) {
+                    String name = pod.getMetadata().getName();
+                    Map<String, Long> stats = cgroupStats(name);
+                    long now = System.nanoTime();
+                    long cpuMicros = stats.getOrDefault("cpu_usec", 0L);
+                    long[] last = previous.put(name, new long[] { now, cpuMicros });
+                    double cores = last == null ? 0 : (cpuMicros - last[1]) * 1_000.0 / (now - last[0]);
+                    samples.add(new Sample(TimeUnit.NANOSECONDS.toMillis(now - start), name, cores, stats.getOrDefault("memory", 0L)));
+                }
+            } catch (Exception e) {
+                LOG.debug("Unable to sample the controller resource use", e);
+            }
+        }
+
+        private Map<String, Long> cgroupStats(String pod) throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ExecWatch watch = client.pods().inNamespace(namespace).withName(pod).inContainer(controllerLabel)
+                .writingOutput(out).exec("sh", "-c", CGROUP_STATS)) {
+                watch.exitCode().get(10, TimeUnit.SECONDS);
+            }
+            Map<String, Long> stats = new TreeMap<>();
+            out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> line.trim().split("\\s+"))
+                .filter(parts -> parts.length == 2 && parts[1].matches("\\d+"))
+                .forEach(parts -> stats.put(parts[0], Long.parseLong(parts[1])));
+            return stats;
+        }
+    }
+}
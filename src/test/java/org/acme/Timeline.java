@@ -0,0 +1,198 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.acme.EnvSettings.setting;
+
+/*
+  Record the phases of the tests (Kind start, manifest load, applies, readiness waits, rollouts,
+  Application transitions, ...) as JFR events (see PhaseEvent) and as the spans of a timeline.
+
+  The timeline is written when the JVM exits, in the Chrome trace event format, to
+  target/timeline.json or to the file defined with -Dtimeline.file. It can be opened with
+  chrome://tracing or https://ui.perfetto.dev to compare runs after a version bump.
+
+  Phase names used by the tests:
+  - cluster: start of a cluster flavor, kind: start of the Kind cluster,
+  - manifest: load of a document of a manifest,
+  - apply: apply of a resource, apply.tier: apply of a tier,
+  - images: preload of an image in the Kind node,
+  - readiness: wait of the pods of a component,
+  - configmap: edit of a ConfigMap, rollout: rollout of a workload,
+  - application: wait of an Application condition (e.g. health Healthy, sync Synced).
+
+  Tracing is disabled by default, so that the classes instrumented cost nothing in the benchmarks
+  and the other tests: ArgoCDCITest enables it, as does -Dtimeline.enabled=true (or the env var
+  TIMELINE_ENABLED). At most MAX_ENTRIES spans are kept, the next ones are only counted.
+*/
+public final class Timeline {
+    private static final Logger LOG = LoggerFactory.getLogger(Timeline.class);
+
+    public static final Path DEFAULT_FILE = Path.of("target", "timeline.json");
+
+    public static final int MAX_ENTRIES = 100_000;
+
+    private static final long ORIGIN = System.nanoTime();
+    private static final ConcurrentLinkedQueue<Entry> ENTRIES = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger SIZE = new AtomicInteger();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static final AtomicBoolean HOOK = new AtomicBoolean();
+    private static final boolean ENABLED_BY_DEFAULT = Boolean.parseBoolean(setting("TIMELINE_ENABLED", "false"));
+    private static volatile boolean enabled = ENABLED_BY_DEFAULT;
+    // Returned when tracing is disabled: never recorded
+    private static final Span DISABLED = new Span();
+
+    public record Entry(String phase, String name, String outcome, long threadId, String threadName, long startNanos, long durationNanos) {
+        public Duration duration() {
+            return Duration.ofNanos(durationNanos);
+        }
+    }
+
+    /*
+      Span of a phase, started when created and recorded when closed. It can be closed
+      from another thread than the one which started it, e.g. when a future completes.
+    */
+    public static final class Span implements AutoCloseable {
+        private final PhaseEvent event;
+        private final String phase;
+        private final String name;
+        private final Thread thread;
+        private final long start;
+        private final AtomicBoolean closed;
+        private volatile String outcome;
+
+        private Span(String phase, String name) {
+            this.event = new PhaseEvent();
+            this.phase = phase;
+            this.name = name;
+            this.thread = Thread.currentThread();
+            this.start = System.nanoTime();
+            this.closed = new AtomicBoolean();
+            event.begin();
+        }
+
+        private Span() {
+            this.event = null;
+            this.phase = null;
+            this.name = null;
+            this.thread = null;
+            this.start = 0;
+            this.closed = new AtomicBoolean(true);
+        }
+
+        public Span outcome(String outcome) {
+            this.outcome = outcome;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            long duration = System.nanoTime() - start;
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.name = name;
+                event.outcome = outcome;
+                event.commit();
+            }
+            if (SIZE.incrementAndGet() > MAX_ENTRIES) {
+                SIZE.decrementAndGet();
+                DROPPED.incrementAndGet();
+                return;
+            }
+            ENTRIES.add(new Entry(phase, name, outcome, thread.threadId(), thread.getName(), start - ORIGIN, duration));
+        }
+    }
+
+    private Timeline() {
+    }
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    // Back to the initial state, for the tests enabling the timeline: disabled unless configured, no span recorded
+    static void reset() {
+        enabled = ENABLED_BY_DEFAULT;
+        ENTRIES.clear();
+        SIZE.set(0);
+        DROPPED.set(0);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static Span span(String phase, String name) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        if (HOOK.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> write(Path.of(setting("TIMELINE_FILE", DEFAULT_FILE.toString())))));
+        }
+        return new Span(phase, name);
+    }
+
+    public static List<Entry> entries() {
+        return new ArrayList<>(ENTRIES);
+    }
+
+    // Chrome trace event format: one complete event (ph X) per span, with timestamps in microseconds
+    public static Map<String, Object> trace(List<Entry> entries) {
+        List<Map<String, Object>> events = new ArrayList<>();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Entry e : entries) {
+            threads.putIfAbsent(e.threadId(), e.threadName());
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("name", e.name());
+            event.put("cat", e.phase());
+            event.put("ph", "X");
+            event.put("ts", e.startNanos() / 1_000);
+            event.put("dur", e.durationNanos() / 1_000);
+            event.put("pid", 1);
+            event.put("tid", e.threadId());
+            if (e.outcome() != null) {
+                event.put("args", Map.of("outcome", e.outcome()));
+            }
+            events.add(event);
+        }
+        threads.forEach((id, name) -> events.add(Map.of("name", "thread_name", "ph", "M", "pid", 1, "tid", id, "args", Map.of("name", name))));
+        return Map.of("traceEvents", events, "displayTimeUnit", "ms");
+    }
+
+    public static void write(Path file) {
+        List<Entry> entries = entries();
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), trace(entries));
+            LOG.info("Timeline of {} phases written to {}{}", entries.size(), file,
+                DROPPED.get() > 0 ? " (" + DROPPED.get() + " phases dropped above " + MAX_ENTRIES + ")" : "");
+        } catch (IOException e) {
+            LOG.warn("Unable to write the timeline to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.acme;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class TimelineTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void spans_are_exported_as_chrome_trace_events() throws Exception {
+        // Left enabled when already enabled by the configuration or another test class (e.g. ArgoCDCITest)
+        boolean enabled = Timeline.isEnabled();
+        Timeline.enable();
+        try {
+            try (var span = Timeline.span("test", "outer")) {
+                Thread.sleep(5);
+                Timeline.span("test", "inner").outcome("done").close();
+            }
+
+            List<Timeline.Entry> entries = Timeline.entries().stream().filter(e -> "test".equals(e.phase())).toList();
+            assertEquals(List.of("inner", "outer"), entries.stream().map(Timeline.Entry::name).toList());
+            assertTrue(entries.get(1).duration().toMillis() >= 5);
+
+            var events = (List<Map<String, Object>>) Timeline.trace(entries).get("traceEvents");
+            Map<String, Object> inner = events.get(0);
+            assertEquals("X", inner.get("ph"));
+            assertEquals("test", inner.get("cat"));
+            assertEquals(Map.of("outcome", "done"), inner.get("args"));
+            assertTrue((long) events.get(1).get("ts") <= (long) inner.get("ts"));
+            assertEquals("M", events.get(2).get("ph"));
+        } finally {
+            if (!enabled) {
+                Timeline.reset();
+            }
+        }
+    }
+
+    @Test
+    public void spans_are_not_recorded_when_disabled() {
+        assumeFalse(Timeline.isEnabled(), "The timeline is enabled in this JVM");
+        Timeline.span("test", "disabled").close();
+        assertTrue(Timeline.entries().stream().noneMatch(e -> "disabled".equals(e.name())));
+    }
+}
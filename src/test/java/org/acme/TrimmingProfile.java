@@ -0,0 +1,95 @@
+package org.acme;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import lombok.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/*
+  Define what is dropped when the resources returned by the API server are deserialized:
+  the managedFields, the kubectl last-applied-configuration annotation and the status of
+  some kinds. Informer caches then retain smaller objects.
+*/
+@Builder
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrimmingProfile {
+    public static final String LAST_APPLIED_ANNOTATION = "kubectl.kubernetes.io/last-applied-configuration";
+
+    public static final TrimmingProfile DEFAULT = new TrimmingProfile();
+
+    @Builder.Default
+    private boolean dropManagedFields = true;
+
+    @Builder.Default
+    private boolean dropLastAppliedConfiguration = true;
+
+    // Kinds whose status is not read, e.g. the ConfigMaps or Services never awaited
+    @Builder.Default
+    private Set<Class<?>> dropStatusOf = Set.of();
+
+    public ObjectMapper configure(ObjectMapper objectMapper) {
+        if (dropManagedFields && dropLastAppliedConfiguration) {
+            objectMapper.addMixIn(ObjectMeta.class, TrimmedObjectMetaMixin.class);
+        } else if (dropManagedFields) {
+            objectMapper.addMixIn(ObjectMeta.class, ObjectMetaMixin.class);
+        } else if (dropLastAppliedConfiguration) {
+            objectMapper.addMixIn(ObjectMeta.class, AnnotationsMixin.class);
+        }
+        dropStatusOf.forEach(type -> objectMapper.addMixIn(type, StatusMixin.class));
+        return objectMapper;
+    }
+
+    @SuppressWarnings("unused")
+    abstract static class TrimmedObjectMetaMixin extends ObjectMetaMixin {
+        @JsonDeserialize(using = LastAppliedStrippingDeserializer.class)
+        private Map<String, String> annotations;
+    }
+
+    @SuppressWarnings("unused")
+    abstract static class AnnotationsMixin extends ObjectMeta {
+        @JsonDeserialize(using = LastAppliedStrippingDeserializer.class)
+        private Map<String, String> annotations;
+    }
+
+    // The status is still written, e.g. when a resource is dumped as YAML, but never read
+    @JsonIgnoreProperties(value = "status", allowGetters = true)
+    abstract static class StatusMixin {
+    }
+
+    // Skip the last-applied-configuration value without materializing it
+    static class LastAppliedStrippingDeserializer extends StdDeserializer<Map<String, String>> {
+        LastAppliedStrippingDeserializer() {
+            super(Map.class);
+        }
+
+        @Override
+        public Map<String, String> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            Map<String, String> annotations = new LinkedHashMap<>();
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                p.nextToken();
+            }
+            for (; p.currentToken() == JsonToken.FIELD_NAME; p.nextToken()) {
+                String key = p.currentName();
+                p.nextToken();
+                if (LAST_APPLIED_ANNOTATION.equals(key)) {
+                    p.skipChildren();
+                } else {
+                    annotations.put(key, p.getValueAsString());
+                }
+            }
+            return annotations;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.acme;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrimmingProfileTest {
+
+    private static final String POD = """
+        {
+          "apiVersion": "v1",
+          "kind": "Pod",
+          "metadata": {
+            "name": "argocd-server",
+            "annotations": {
+              "kubectl.kubernetes.io/last-applied-configuration": "{\\"apiVersion\\":\\"v1\\",\\"kind\\":\\"Pod\\"}",
+              "owner": "argocd"
+            },
+            "managedFields": [ { "manager": "kubectl", "operation": "Update" } ]
+          },
+          "status": { "phase": "Running" }
+        }
+        """;
+
+    @Test
+    public void default_profile_drops_managed_fields_and_last_applied_annotation() {
+        Pod pod = KubernetesClients.serialization(TrimmingProfile.DEFAULT).unmarshal(POD, Pod.class);
+
+        assertTrue(pod.getMetadata().getManagedFields().isEmpty());
+        assertEquals(Map.of("owner", "argocd"), pod.getMetadata().getAnnotations());
+        assertNotNull(pod.getStatus());
+    }
+
+    @Test
+    public void status_is_dropped_for_the_configured_kinds() {
+        var profile = TrimmingProfile.builder().dropStatusOf(Set.of(Pod.class)).build();
+        Pod pod = KubernetesClients.serialization(profile).unmarshal(POD, Pod.class);
+
+        assertNull(pod.getStatus());
+        assertEquals("argocd-server", pod.getMetadata().getName());
+    }
+}